@@ -1,38 +1,61 @@
 package com.rmit.sudoku;
 
 import com.rmit.sudoku.solver.BacktrackingSudokuSolver;
+import com.rmit.sudoku.solver.BitmaskSudokuSolver;
+import com.rmit.sudoku.solver.CancellationToken;
+import com.rmit.sudoku.solver.SolveResult;
 import com.rmit.sudoku.solver.dlx.SudokuDLXSolver;
 import com.rmit.sudoku.solver.SudokuSolver;
 import com.rmit.sudoku.solver.SudokuTimeoutException;
 
+import java.util.function.Supplier;
+
 /**
  * RMIT_Sudoku_Solver class for solving 9x9 Sudoku puzzles.
  * Uses a backtracking algorithm to efficiently find solutions.
  * Tracks and reports time and space complexity metrics.
+ * <p>
+ * Instances are thread-safe. Each thread gets its own instance of every solver on first use
+ * and keeps it, so concurrent solves never share mutable state, and each thread's solvers
+ * reuse their boards, masks and Dancing Links arrays from one solve to the next. Every solve
+ * returns a {@link SolveResult} carrying the metrics of that solve only.
  */
 public class RMIT_Sudoku_Solver {
 
     private static final int GRID_SIZE = 9;
-    private final SudokuSolver backtrackingSolver;
-    private final SudokuSolver dancingLinksSolver;
+    private final ThreadLocal<SudokuSolver> backtrackingSolver;
+    private final ThreadLocal<SudokuSolver> dancingLinksSolver;
+    private final ThreadLocal<SudokuSolver> bitmaskSolver;
 
     /**
      * Creates a new RMIT_Sudoku_Solver with the default solvers.
      */
     public RMIT_Sudoku_Solver() {
-        this.backtrackingSolver = new BacktrackingSudokuSolver();
-        this.dancingLinksSolver = new SudokuDLXSolver();
+        this(BacktrackingSudokuSolver::new, SudokuDLXSolver::new, BitmaskSudokuSolver::new);
     }
 
     /**
      * Creates a new RMIT_Sudoku_Solver with custom solvers.
      *
-     * @param backtrackingSolver The backtracking solver to use
-     * @param dancingLinksSolver The dancing links solver to use
+     * @param backtrackingSolver Creates the backtracking solver of each thread
+     * @param dancingLinksSolver Creates the dancing links solver of each thread
      */
-    public RMIT_Sudoku_Solver(SudokuSolver backtrackingSolver, SudokuSolver dancingLinksSolver) {
-        this.backtrackingSolver = backtrackingSolver;
-        this.dancingLinksSolver = dancingLinksSolver;
+    public RMIT_Sudoku_Solver(Supplier<SudokuSolver> backtrackingSolver, Supplier<SudokuSolver> dancingLinksSolver) {
+        this(backtrackingSolver, dancingLinksSolver, BitmaskSudokuSolver::new);
+    }
+
+    /**
+     * Creates a new RMIT_Sudoku_Solver with custom solvers, including the bitmask solver.
+     *
+     * @param backtrackingSolver Creates the backtracking solver of each thread
+     * @param dancingLinksSolver Creates the dancing links solver of each thread
+     * @param bitmaskSolver Creates the bitmask (MRV) solver of each thread
+     */
+    public RMIT_Sudoku_Solver(Supplier<SudokuSolver> backtrackingSolver, Supplier<SudokuSolver> dancingLinksSolver,
+                              Supplier<SudokuSolver> bitmaskSolver) {
+        this.backtrackingSolver = ThreadLocal.withInitial(backtrackingSolver);
+        this.dancingLinksSolver = ThreadLocal.withInitial(dancingLinksSolver);
+        this.bitmaskSolver = ThreadLocal.withInitial(bitmaskSolver);
     }
 
     /**
@@ -43,12 +66,7 @@ public class RMIT_Sudoku_Solver {
      * @throws RuntimeException if the puzzle cannot be solved within 2 minutes
      */
     public int[][] solve(int[][] board) {
-        try {
-            return backtrackingSolver.solve(board);
-        } catch (SudokuTimeoutException e) {
-            // Convert to RuntimeException to maintain backward compatibility
-            throw new RuntimeException("Timeout: " + e.getMessage(), e);
-        }
+        return solveWithBacktracking(board).getSolution();
     }
 
     /**
@@ -59,8 +77,95 @@ public class RMIT_Sudoku_Solver {
      * @throws RuntimeException if the puzzle cannot be solved within 2 minutes
      */
     public int[][] solveDLX(int[][] board) {
+        return solveWithDLX(board).getSolution();
+    }
+
+    /**
+     * Solves a Sudoku puzzle using the bitmask backtracking algorithm with MRV cell selection.
+     *
+     * @param board 2D array representing the Sudoku puzzle (0 for empty cells, 1-9 for filled cells)
+     * @return The solved puzzle as a 2D array, or null if no solution exists
+     * @throws RuntimeException if the puzzle cannot be solved within 2 minutes
+     */
+    public int[][] solveBitmask(int[][] board) {
+        return solveWithBitmask(board).getSolution();
+    }
+
+    /**
+     * Solves a Sudoku puzzle using the backtracking algorithm and returns its metrics with it.
+     *
+     * @param board 2D array representing the Sudoku puzzle (0 for empty cells, 1-9 for filled cells)
+     * @return The solution (null if no solution exists) and the metrics of this solve
+     * @throws RuntimeException if the puzzle cannot be solved within 2 minutes
+     */
+    public SolveResult solveWithBacktracking(int[][] board) {
+        return solveWith(backtrackingSolver.get(), board);
+    }
+
+    /**
+     * Solves a Sudoku puzzle using the Dancing Links (DLX) algorithm and returns its metrics with it.
+     *
+     * @param board 2D array representing the Sudoku puzzle (0 for empty cells, 1-9 for filled cells)
+     * @return The solution (null if no solution exists) and the metrics of this solve
+     * @throws RuntimeException if the puzzle cannot be solved within 2 minutes
+     */
+    public SolveResult solveWithDLX(int[][] board) {
+        return solveWith(dancingLinksSolver.get(), board);
+    }
+
+    /**
+     * Solves a Sudoku puzzle using the bitmask backtracking algorithm and returns its metrics with it.
+     *
+     * @param board 2D array representing the Sudoku puzzle (0 for empty cells, 1-9 for filled cells)
+     * @return The solution (null if no solution exists) and the metrics of this solve
+     * @throws RuntimeException if the puzzle cannot be solved within 2 minutes
+     */
+    public SolveResult solveWithBitmask(int[][] board) {
+        return solveWith(bitmaskSolver.get(), board);
+    }
+
+    /**
+     * Solves a Sudoku puzzle using the backtracking algorithm, giving up once {@code token} is
+     * cancelled or its deadline passes.
+     *
+     * @param board 2D array representing the Sudoku puzzle (0 for empty cells, 1-9 for filled cells)
+     * @param token The caller's cancellation token, or null
+     * @return The solution (null if no solution exists) and the metrics of this solve
+     * @throws SudokuTimeoutException if the search was stopped early; it carries the partial metrics
+     */
+    public SolveResult solveWithBacktracking(int[][] board, CancellationToken token) throws SudokuTimeoutException {
+        return backtrackingSolver.get().solveWithMetrics(board, token);
+    }
+
+    /**
+     * Solves a Sudoku puzzle using the Dancing Links (DLX) algorithm, giving up once {@code token}
+     * is cancelled or its deadline passes.
+     *
+     * @param board 2D array representing the Sudoku puzzle (0 for empty cells, 1-9 for filled cells)
+     * @param token The caller's cancellation token, or null
+     * @return The solution (null if no solution exists) and the metrics of this solve
+     * @throws SudokuTimeoutException if the search was stopped early; it carries the partial metrics
+     */
+    public SolveResult solveWithDLX(int[][] board, CancellationToken token) throws SudokuTimeoutException {
+        return dancingLinksSolver.get().solveWithMetrics(board, token);
+    }
+
+    /**
+     * Solves a Sudoku puzzle using the bitmask backtracking algorithm, giving up once {@code token}
+     * is cancelled or its deadline passes.
+     *
+     * @param board 2D array representing the Sudoku puzzle (0 for empty cells, 1-9 for filled cells)
+     * @param token The caller's cancellation token, or null
+     * @return The solution (null if no solution exists) and the metrics of this solve
+     * @throws SudokuTimeoutException if the search was stopped early; it carries the partial metrics
+     */
+    public SolveResult solveWithBitmask(int[][] board, CancellationToken token) throws SudokuTimeoutException {
+        return bitmaskSolver.get().solveWithMetrics(board, token);
+    }
+
+    private static SolveResult solveWith(SudokuSolver solver, int[][] board) {
         try {
-            return dancingLinksSolver.solve(board);
+            return solver.solveWithMetrics(board);
         } catch (SudokuTimeoutException e) {
             // Convert to RuntimeException to maintain backward compatibility
             throw new RuntimeException("Timeout: " + e.getMessage(), e);
@@ -97,30 +202,6 @@ public class RMIT_Sudoku_Solver {
         return solution;
     }
 
-    /**
-     * Gets the metrics from the backtracking solver.
-     *
-     * @return The metrics from the backtracking solver
-     */
-    public com.rmit.sudoku.metrics.SudokuMetrics getBacktrackingMetrics() {
-        if (backtrackingSolver instanceof BacktrackingSudokuSolver) {
-            return ((BacktrackingSudokuSolver) backtrackingSolver).getMetrics();
-        }
-        return null;
-    }
-
-    /**
-     * Gets the metrics from the dancing links solver.
-     *
-     * @return The metrics from the dancing links solver
-     */
-    public com.rmit.sudoku.metrics.SudokuMetrics getDancingLinksMetrics() {
-        if (dancingLinksSolver instanceof SudokuDLXSolver) {
-            return ((SudokuDLXSolver) dancingLinksSolver).getMetrics();
-        }
-        return null;
-    }
-
     /**
      * Utility method to print a Sudoku board.
      *
@@ -1,15 +1,28 @@
 package com.rmit.sudoku;
 
+import com.rmit.sudoku.cli.BulkSolverCli;
+
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.Arrays;
+
 @SpringBootApplication
 public class SudokuApplication {
 
+    // Streamed responses such as batch solves can run far longer than the container default
+    private static final long ASYNC_REQUEST_TIMEOUT_MS = 30 * 60 * 1000;
+
     public static void main(String[] args) {
+        // "solve-file <input> <output> ..." runs the bulk solver instead of the web server
+        if (args.length > 0 && BulkSolverCli.COMMAND.equals(args[0])) {
+            BulkSolverCli.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         SpringApplication.run(SudokuApplication.class, args);
     }
 
@@ -23,6 +36,11 @@ public class SudokuApplication {
                         .allowedOrigins("http://localhost:3000")
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS");
             }
+
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setDefaultTimeout(ASYNC_REQUEST_TIMEOUT_MS);
+            }
         };
     }
 }
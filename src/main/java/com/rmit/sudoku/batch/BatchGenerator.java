@@ -0,0 +1,219 @@
+package com.rmit.sudoku.batch;
+
+import com.rmit.sudoku.generator.SudokuGenerator;
+import com.rmit.sudoku.model.BatchGenerateResult;
+import com.rmit.sudoku.solver.CancellationToken;
+import com.rmit.sudoku.solver.SudokuTimeoutException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Generates batches of puzzles on a bounded worker pool.
+ * <p>
+ * A batch is reproducible: the master seed is split once per puzzle, in index order, on the
+ * calling thread, and each puzzle is generated from its own seed alone. The same difficulty,
+ * count and seed therefore give the same puzzles however many workers there are and whichever
+ * worker picks up which puzzle. Each result carries its puzzle seed, so a single puzzle can be
+ * regenerated with {@link SudokuGenerator#generateGraded(SudokuGenerator.Difficulty, long)}.
+ * <p>
+ * As in {@link BatchSolver}, only a fixed number of puzzles are in flight at once and each worker
+ * thread keeps its own generator. Once a batch stops (e.g. the client disconnected or the calling
+ * thread was interrupted) the puzzles still being generated are cancelled.
+ */
+public class BatchGenerator {
+
+    /** Largest number of puzzles one batch may ask for. */
+    public static final int MAX_BATCH_SIZE = 10000;
+
+    private static final int IN_FLIGHT_PER_WORKER = 4;
+
+    private final int workers;
+    private final ExecutorService executor;
+    private final ThreadLocal<SudokuGenerator> generators = ThreadLocal.withInitial(SudokuGenerator::new);
+
+    /**
+     * Creates a new BatchGenerator with one worker per available processor.
+     */
+    public BatchGenerator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new BatchGenerator with a custom pool size.
+     *
+     * @param workers The number of worker threads
+     */
+    public BatchGenerator(int workers) {
+        this.workers = Math.max(1, workers);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.workers, runnable -> {
+            Thread thread = new Thread(runnable, "sudoku-generate-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Generates a batch of puzzles and returns them once all are done.
+     *
+     * @param difficulty The difficulty level
+     * @param count The number of puzzles, between 1 and {@link #MAX_BATCH_SIZE}
+     * @param seed The master seed of the batch
+     * @return The puzzles in index order
+     * @throws IllegalArgumentException if the count is out of range
+     * @throws IllegalStateException if a puzzle could not be generated or the calling thread was interrupted
+     */
+    public int[][][] generate(SudokuGenerator.Difficulty difficulty, int count, long seed) {
+        checkCount(count);
+        BatchGenerateResult[] results = new BatchGenerateResult[count];
+        try {
+            run(difficulty, count, seed, result -> results[result.getIndex()] = result, () -> false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch generation was interrupted");
+        }
+
+        int[][][] puzzles = new int[count][][];
+        for (int i = 0; i < count; i++) {
+            if (results[i].getBoard() == null) {
+                throw new IllegalStateException(results[i].getMessage());
+            }
+            puzzles[i] = results[i].getBoard();
+        }
+        return puzzles;
+    }
+
+    /**
+     * Generates a batch of puzzles and writes them to {@code out} as newline-delimited JSON, in
+     * completion order, each carrying its index in the batch. Each puzzle is flushed to the client
+     * as soon as it is done, even while slower puzzles are still being generated. Returns once
+     * every result has been written and flushed.
+     *
+     * @param difficulty The difficulty level
+     * @param count The number of puzzles, between 1 and {@link #MAX_BATCH_SIZE}
+     * @param seed The master seed of the batch
+     * @param out The response body
+     * @throws IllegalArgumentException if the count is out of range
+     * @throws IOException if the response cannot be written
+     */
+    public void generateAll(SudokuGenerator.Difficulty difficulty, int count, long seed, OutputStream out)
+            throws IOException {
+        checkCount(count);
+        NdjsonWriter writer = new NdjsonWriter(out);
+        try {
+            run(difficulty, count, seed, writer::write, writer::hasFailed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Batch generation was interrupted");
+        }
+        writer.finish();
+    }
+
+    /**
+     * Writes a single result with index -1 reporting why a batch was rejected, in the same
+     * format as the results of {@link #generateAll}.
+     *
+     * @param out The response body
+     * @param message The reason the batch was rejected
+     * @throws IOException if the response cannot be written
+     */
+    public void writeRejection(OutputStream out, String message) throws IOException {
+        BatchGenerateResult result = new BatchGenerateResult();
+        result.setIndex(-1);
+        result.setMessage(message);
+        NdjsonWriter writer = new NdjsonWriter(out);
+        writer.write(result);
+        writer.finish();
+    }
+
+    /**
+     * Hands the puzzles of a batch to the workers and waits for all of them. Results reach
+     * {@code sink} on the worker threads; once {@code stopped} returns true no more puzzles
+     * are started and the ones in flight are cancelled. Does not return, normally or not, while
+     * any puzzle is still in flight.
+     */
+    private void run(SudokuGenerator.Difficulty difficulty, int count, long seed,
+                     Consumer<BatchGenerateResult> sink, BooleanSupplier stopped) throws InterruptedException {
+        int maxInFlight = workers * IN_FLIGHT_PER_WORKER;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        SplittableRandom master = new SplittableRandom(seed);
+        CancellationToken batchToken = new CancellationToken();
+
+        try {
+            for (int index = 0; index < count && !stopped.getAsBoolean(); index++) {
+                int puzzleIndex = index;
+                long puzzleSeed = master.split().nextLong();
+
+                inFlight.acquire();
+                try {
+                    executor.execute(() -> {
+                        try {
+                            sink.accept(generateOne(difficulty, puzzleIndex, puzzleSeed, batchToken));
+                            if (stopped.getAsBoolean()) {
+                                batchToken.cancel();
+                            }
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    inFlight.release();
+                    throw e;
+                }
+            }
+
+            // Wait for the puzzles still being generated
+            inFlight.acquire(maxInFlight);
+        } catch (InterruptedException | RuntimeException e) {
+            // The workers still hand results to the sink, so let them finish before returning
+            batchToken.cancel();
+            inFlight.acquireUninterruptibly(maxInFlight);
+            throw e;
+        }
+    }
+
+    /**
+     * Generates one puzzle with this worker's generator.
+     */
+    private BatchGenerateResult generateOne(SudokuGenerator.Difficulty difficulty, int index, long seed,
+                                            CancellationToken token) {
+        BatchGenerateResult result = new BatchGenerateResult();
+        result.setIndex(index);
+        result.setSeed(seed);
+        long start = System.nanoTime();
+        try {
+            result.setBoard(generators.get().generateGraded(difficulty, seed, token));
+            result.setMessage("Generated " + difficulty + " puzzle");
+        } catch (SudokuTimeoutException e) {
+            result.setMessage("Generation of puzzle " + index + " was cancelled");
+        } catch (RuntimeException e) {
+            result.setMessage("Failed to generate puzzle " + index + ": " + e.getMessage());
+        }
+        result.setTimeTakenMicros(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        return result;
+    }
+
+    private static void checkCount(int count) {
+        if (count < 1 || count > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Count must be between 1 and " + MAX_BATCH_SIZE);
+        }
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,195 @@
+package com.rmit.sudoku.batch;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.rmit.sudoku.model.CompactBoard;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the puzzles of a batch request one at a time, so the request body is never held in memory.
+ * Puzzles are returned as {@link CompactBoard}s to keep the boards waiting for a worker small.
+ * <p>
+ * Two formats are accepted, detected from the first non-blank character:
+ * <ul>
+ *   <li>A JSON array whose elements are 9x9 arrays, 81-character strings, or objects with a
+ *       {@code board} field (the body of a single solve request).</li>
+ *   <li>Plain text with one 81-character puzzle per line, using 1-9 for givens and 0 or '.' for
+ *       empty cells. Blank lines are skipped.</li>
+ * </ul>
+ */
+public class BatchPuzzleReader implements Closeable {
+
+    private static final int GRID_SIZE = 9;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonParser parser;       // null in line mode
+    private final BufferedReader lines;    // null in JSON mode
+
+    private BatchPuzzleReader(JsonParser parser, BufferedReader lines) {
+        this.parser = parser;
+        this.lines = lines;
+    }
+
+    /**
+     * Opens a reader over a request body, detecting its format.
+     *
+     * @param in The request body
+     * @return A reader positioned before the first puzzle
+     * @throws IOException if the body cannot be read or is not a JSON array
+     */
+    public static BatchPuzzleReader open(InputStream in) throws IOException {
+        PushbackInputStream body = new PushbackInputStream(new BufferedInputStream(in));
+        int first = body.read();
+        while (first != -1 && Character.isWhitespace(first)) {
+            first = body.read();
+        }
+        if (first != -1) {
+            body.unread(first);
+        }
+
+        if (first == '[') {
+            JsonParser parser = JSON_FACTORY.createParser(body);
+            parser.nextToken(); // START_ARRAY
+            return new BatchPuzzleReader(parser, null);
+        }
+        return new BatchPuzzleReader(null, new BufferedReader(new InputStreamReader(body, StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * Reads the next puzzle.
+     *
+     * @return The next board, or null at the end of the batch
+     * @throws IllegalArgumentException if the next puzzle is malformed; the reader has skipped it
+     *                                  and can continue with the following one
+     * @throws IOException if the body cannot be read or is not well-formed JSON
+     */
+    public CompactBoard next() throws IOException {
+        return parser != null ? nextJson() : nextLine();
+    }
+
+    private CompactBoard nextLine() throws IOException {
+        String line;
+        while ((line = lines.readLine()) != null) {
+            line = line.trim();
+            if (!line.isEmpty()) {
+                return CompactBoard.fromString(line);
+            }
+        }
+        return null;
+    }
+
+    private CompactBoard nextJson() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null || token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        return readPuzzle(token);
+    }
+
+    /**
+     * Reads one array element, which starts with {@code token}.
+     */
+    private CompactBoard readPuzzle(JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            return CompactBoard.fromString(parser.getText());
+        }
+        if (token == JsonToken.START_ARRAY) {
+            return readGrid();
+        }
+        if (token == JsonToken.START_OBJECT) {
+            CompactBoard board = null;
+            String error = "Puzzle object must have a board field";
+            while ((token = nextTokenInValue()) != JsonToken.END_OBJECT) {
+                String field = parser.getText();
+                token = nextTokenInValue();
+                if ("board".equals(field) && (token == JsonToken.START_ARRAY || token == JsonToken.VALUE_STRING)) {
+                    try {
+                        board = readPuzzle(token);
+                        error = null;
+                    } catch (IllegalArgumentException e) {
+                        error = e.getMessage(); // Finish the object before reporting it
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (error != null) {
+                throw new IllegalArgumentException(error);
+            }
+            return board;
+        }
+        throw new IllegalArgumentException("Puzzle must be a 9x9 array or an 81-character string");
+    }
+
+    /**
+     * Reads a 9x9 array of numbers whose START_ARRAY token has just been read.
+     * The whole array is consumed even if it is malformed.
+     */
+    private CompactBoard readGrid() throws IOException {
+        CompactBoard board = new CompactBoard();
+        String error = null;
+        int row = 0;
+        JsonToken token;
+        while ((token = nextTokenInValue()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_ARRAY || row >= GRID_SIZE) {
+                parser.skipChildren();
+                error = "Board must be a 9x9 grid";
+                row++;
+                continue;
+            }
+            int col = 0;
+            while ((token = nextTokenInValue()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.VALUE_NUMBER_INT) {
+                    parser.skipChildren();
+                    error = "Board values must be between 0 and 9";
+                } else if (col < GRID_SIZE) {
+                    int value = parser.getValueAsInt(-1);
+                    if (value < 0 || value > 9) {
+                        error = "Board values must be between 0 and 9";
+                    } else {
+                        board.set(row, col, value);
+                    }
+                }
+                col++;
+            }
+            if (col != GRID_SIZE) {
+                error = "Board must be a 9x9 grid";
+            }
+            row++;
+        }
+        if (row != GRID_SIZE) {
+            error = "Board must be a 9x9 grid";
+        }
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        return board;
+    }
+
+    private JsonToken nextTokenInValue() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            throw new EOFException("Unexpected end of batch request");
+        }
+        return token;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (parser != null) {
+            parser.close();
+        } else {
+            lines.close();
+        }
+    }
+}
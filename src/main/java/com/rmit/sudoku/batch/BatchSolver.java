@@ -0,0 +1,174 @@
+package com.rmit.sudoku.batch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.rmit.sudoku.model.BatchSolveResult;
+import com.rmit.sudoku.model.CompactBoard;
+import com.rmit.sudoku.solver.CancellationToken;
+import com.rmit.sudoku.solver.SudokuCancelledException;
+import com.rmit.sudoku.solver.SudokuTimeoutException;
+import com.rmit.sudoku.solver.dlx.SudokuDLXSolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Solves a stream of puzzles on a bounded worker pool and writes one JSON line per puzzle.
+ * <p>
+ * Puzzles are read one at a time and handed to the workers, but only a fixed number may be in
+ * flight at once: the reader blocks until a worker finishes, so memory use does not grow with the
+ * batch size. Results are written in completion order and carry the index of their puzzle in the
+ * input. Each worker thread keeps its own Dancing Links solver. Once a batch stops (the response
+ * cannot be written, e.g. because the client disconnected, or the calling thread was interrupted)
+ * the puzzles still being solved are cancelled.
+ */
+public class BatchSolver {
+
+    private static final long DEFAULT_TIMEOUT_MS = 120000; // 2 minutes
+    private static final int IN_FLIGHT_PER_WORKER = 4;
+
+    private final int workers;
+    private final ExecutorService executor;
+    private final ThreadLocal<SudokuDLXSolver> solvers;
+
+    /**
+     * Creates a new BatchSolver with one worker per available processor.
+     */
+    public BatchSolver() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_TIMEOUT_MS);
+    }
+
+    /**
+     * Creates a new BatchSolver with a custom pool size and per-puzzle timeout.
+     *
+     * @param workers The number of worker threads
+     * @param timeoutMs The timeout in milliseconds for each puzzle
+     */
+    public BatchSolver(int workers, long timeoutMs) {
+        this.workers = Math.max(1, workers);
+        this.solvers = ThreadLocal.withInitial(() -> new SudokuDLXSolver(timeoutMs, false));
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.workers, runnable -> {
+            Thread thread = new Thread(runnable, "sudoku-batch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Solves every puzzle in {@code in} and writes the results to {@code out} as newline-delimited JSON.
+     * Malformed puzzles produce a result with {@code solved = false} and do not stop the batch.
+     * Returns once every result has been written and flushed.
+     *
+     * @param in The batch request body (see {@link BatchPuzzleReader} for the formats)
+     * @param out The response body
+     * @throws IOException if the request cannot be read or the response cannot be written
+     */
+    public void solveAll(InputStream in, OutputStream out) throws IOException {
+        int maxInFlight = workers * IN_FLIGHT_PER_WORKER;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        NdjsonWriter writer = new NdjsonWriter(out);
+        CancellationToken batchToken = new CancellationToken();
+
+        try (BatchPuzzleReader reader = BatchPuzzleReader.open(in)) {
+            int index = 0;
+            while (!writer.hasFailed()) {
+                CompactBoard board;
+                try {
+                    board = reader.next();
+                } catch (IllegalArgumentException e) {
+                    writer.write(result(index++, null, false, "Invalid puzzle: " + e.getMessage(), 0));
+                    continue;
+                } catch (JsonProcessingException e) {
+                    // The rest of the body cannot be parsed; report it with index -1 and stop reading
+                    writer.write(result(-1, null, false, "Malformed batch request: " + e.getOriginalMessage(), 0));
+                    break;
+                }
+                if (board == null) {
+                    break;
+                }
+
+                inFlight.acquire();
+                int puzzleIndex = index++;
+                try {
+                    executor.execute(() -> {
+                        try {
+                            writer.write(solveOne(puzzleIndex, board, batchToken));
+                            if (writer.hasFailed()) {
+                                batchToken.cancel();
+                            }
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    inFlight.release();
+                    throw e;
+                }
+            }
+
+            // Wait for the puzzles still being solved
+            if (writer.hasFailed()) {
+                batchToken.cancel();
+            }
+            inFlight.acquire(maxInFlight);
+        } catch (InterruptedException e) {
+            batchToken.cancel();
+            inFlight.acquireUninterruptibly(maxInFlight);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Batch solve was interrupted");
+        } catch (IOException | RuntimeException e) {
+            // The workers still write to the response, so let them finish before it is given back
+            batchToken.cancel();
+            inFlight.acquireUninterruptibly(maxInFlight);
+            throw e;
+        }
+
+        writer.finish();
+    }
+
+    /**
+     * Solves one puzzle with this worker's solver.
+     */
+    private BatchSolveResult solveOne(int index, CompactBoard board, CancellationToken token) {
+        long start = System.nanoTime();
+        try {
+            CompactBoard solution = solvers.get().findSolution(board, token);
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            if (solution != null) {
+                return result(index, solution.toArray(), true, "Puzzle solved successfully.", micros);
+            }
+            return result(index, board.toArray(), false, "No solution exists for this puzzle.", micros);
+        } catch (SudokuCancelledException e) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            return result(index, board.toArray(), false, "Solving of puzzle " + index + " was cancelled", micros);
+        } catch (SudokuTimeoutException | RuntimeException e) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            return result(index, board.toArray(), false, "Failed to solve puzzle: " + e.getMessage(), micros);
+        }
+    }
+
+    private static BatchSolveResult result(int index, int[][] board, boolean solved, String message, long micros) {
+        BatchSolveResult result = new BatchSolveResult();
+        result.setIndex(index);
+        result.setBoard(board);
+        result.setSolved(solved);
+        result.setMessage(message);
+        result.setTimeTakenMicros(micros);
+        return result;
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,71 @@
+package com.rmit.sudoku.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serialises results from worker threads onto a response as newline-delimited JSON. A result is
+ * flushed as soon as no other result is waiting to be written, so the last result of a burst
+ * reaches the client at once even if the next one is far off. While results keep queueing up,
+ * the response is flushed at most every {@link #FLUSH_INTERVAL_NANOS}, so busy batches do not
+ * make one network write per result. After the first write error (e.g. the client disconnected)
+ * further results are dropped, and the batch should stop producing them.
+ */
+class NdjsonWriter {
+
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final OutputStream out;
+    private final AtomicInteger waiting = new AtomicInteger(); // writers queued for the lock
+    private long lastFlush = System.nanoTime();
+    private volatile IOException failure;
+
+    NdjsonWriter(OutputStream out) {
+        this.out = new BufferedOutputStream(out);
+    }
+
+    boolean hasFailed() {
+        return failure != null;
+    }
+
+    void write(Object result) {
+        waiting.incrementAndGet();
+        synchronized (this) {
+            waiting.decrementAndGet();
+            if (failure != null) {
+                return;
+            }
+            try {
+                out.write(MAPPER.writeValueAsBytes(result));
+                out.write('\n');
+                // A writer still queued will flush after its own result; otherwise this is the last one for now
+                long now = System.nanoTime();
+                if (waiting.get() == 0 || now - lastFlush >= FLUSH_INTERVAL_NANOS) {
+                    out.flush();
+                    lastFlush = now;
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    /**
+     * Flushes the remaining results.
+     *
+     * @throws IOException the first write error, if any result could not be written
+     */
+    synchronized void finish() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        out.flush();
+    }
+}
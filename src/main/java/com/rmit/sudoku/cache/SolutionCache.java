@@ -0,0 +1,376 @@
+package com.rmit.sudoku.cache;
+
+import com.rmit.sudoku.model.CompactBoard;
+import com.rmit.sudoku.symmetry.SudokuCanonicalizer;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread-safe cache of puzzle solutions.
+ * <p>
+ * Each puzzle is stored as it is, and also in the canonical form of its symmetry class (see
+ * {@link SudokuCanonicalizer}). A lookup tries the puzzle as it is first, which is the cheap
+ * path for repeated requests, and canonicalizes only when that misses, so a puzzle that is a
+ * rotated, reflected, shuffled or relabelled copy of a cached one is still a hit: the cached
+ * canonical solution is mapped back through the transform that canonicalized the new puzzle,
+ * and the puzzle is then cached as it is too. Canonicalizing can cost as much as a solve on
+ * nearly empty boards, so puzzles with fewer than {@link #MIN_CANONICAL_CLUES} givens, and
+ * puzzles too symmetric to canonicalize within {@link #MAX_CANONICAL_STATES} tied transforms,
+ * are only stored as they are.
+ * <p>
+ * Entries are keyed by a 64-bit fingerprint of the packed key puzzle and store both the packed
+ * puzzle and its packed solution (41 bytes each), so a fingerprint collision is detected on
+ * lookup and treated as a miss. The cache is split into segments with their own lock and LRU
+ * order; each segment evicts its least recently used entries once it exceeds its share of the
+ * entry limit or of the weight limit (an estimate of the bytes held). Hit, miss and eviction
+ * counts are kept in {@link LongAdder}s so that reading them never contends with lookups.
+ */
+public class SolutionCache {
+
+    /** Default maximum number of cached entries. */
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+
+    /** Default maximum weight in bytes. */
+    public static final long DEFAULT_MAX_WEIGHT_BYTES = 32L * 1024 * 1024;
+
+    /** Fewest givens for which a puzzle is canonicalized; fewer cannot have a unique solution. */
+    public static final int MIN_CANONICAL_CLUES = 17;
+
+    /** State limit of the canonicalizer, which bounds the time spent on highly symmetric puzzles. */
+    public static final int MAX_CANONICAL_STATES = 256;
+
+    private static final int SEGMENT_COUNT = 16;
+
+    // Estimated bytes per entry besides the packed boards: map node, boxed key, entry and array headers
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    /** Per-thread canonicalizer, which also remembers its last puzzle for the put after a miss. */
+    private static final ThreadLocal<Canonicalization> CANONICALIZATION =
+            ThreadLocal.withInitial(Canonicalization::new);
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final int maxEntries;
+    private final long maxWeightBytes;
+    private final boolean canonical;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a new SolutionCache with the default limits.
+     */
+    public SolutionCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_WEIGHT_BYTES);
+    }
+
+    /**
+     * Creates a new SolutionCache with custom limits.
+     *
+     * @param maxEntries The maximum number of cached entries
+     * @param maxWeightBytes The maximum estimated memory held by the cache, in bytes
+     */
+    public SolutionCache(int maxEntries, long maxWeightBytes) {
+        this(maxEntries, maxWeightBytes, true);
+    }
+
+    /**
+     * Creates a new SolutionCache with custom limits.
+     *
+     * @param maxEntries The maximum number of cached entries
+     * @param maxWeightBytes The maximum estimated memory held by the cache, in bytes
+     * @param canonical Whether to also key puzzles by their canonical form, so symmetric copies share an entry
+     */
+    public SolutionCache(int maxEntries, long maxWeightBytes, boolean canonical) {
+        if (maxEntries < 1 || maxWeightBytes < 1) {
+            throw new IllegalArgumentException("Cache limits must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeightBytes = maxWeightBytes;
+        this.canonical = canonical;
+
+        int entriesPerSegment = Math.max(1, (maxEntries + SEGMENT_COUNT - 1) / SEGMENT_COUNT);
+        long weightPerSegment = Math.max(1, (maxWeightBytes + SEGMENT_COUNT - 1) / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(entriesPerSegment, weightPerSegment);
+        }
+    }
+
+    /**
+     * Looks up the solution of a puzzle, first as it is and then by its canonical form.
+     *
+     * @param puzzle The puzzle
+     * @return A new board holding the cached solution, or null on a miss
+     */
+    public CompactBoard get(CompactBoard puzzle) {
+        byte[] packed = puzzle.toPacked();
+        byte[] solution = lookup(packed);
+        if (solution != null) {
+            hits.increment();
+            return CompactBoard.fromPacked(solution);
+        }
+
+        SudokuCanonicalizer.Canonical form = canonicalize(puzzle);
+        if (form != null) {
+            solution = lookup(form.getBoard().toPacked());
+        }
+        if (solution == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        CompactBoard board = form.getTransform().applyInverse(CompactBoard.fromPacked(solution));
+        store(packed, board); // Later repeats of this exact puzzle skip canonicalizing
+        return board;
+    }
+
+    /**
+     * Caches the solution of a puzzle as it is and by its canonical form, replacing any entries
+     * with the same fingerprints.
+     *
+     * @param puzzle The puzzle
+     * @param solution Its solution
+     */
+    public void put(CompactBoard puzzle, CompactBoard solution) {
+        store(puzzle.toPacked(), solution);
+        SudokuCanonicalizer.Canonical form = canonicalize(puzzle);
+        if (form != null) {
+            store(form.getBoard().toPacked(), form.getTransform().apply(solution));
+        }
+    }
+
+    private byte[] lookup(byte[] packed) {
+        long fingerprint = fingerprint(packed);
+        return segmentFor(fingerprint).get(fingerprint, packed);
+    }
+
+    private void store(byte[] packed, CompactBoard solution) {
+        long fingerprint = fingerprint(packed);
+        int evicted = segmentFor(fingerprint).put(fingerprint, new Entry(packed, solution.toPacked()));
+        if (evicted > 0) {
+            evictions.add(evicted);
+        }
+    }
+
+    /**
+     * Maps a puzzle to its canonical form, or returns null if the cache is not canonical, the
+     * puzzle has too few givens or too many symmetries, or it is already in canonical form.
+     */
+    private SudokuCanonicalizer.Canonical canonicalize(CompactBoard puzzle) {
+        if (!canonical || CompactBoard.CELL_COUNT - puzzle.getEmptyCount() < MIN_CANONICAL_CLUES) {
+            return null;
+        }
+        Canonicalization state = CANONICALIZATION.get();
+        if (!puzzle.equals(state.lastPuzzle)) {
+            state.lastPuzzle = puzzle.copy();
+            SudokuCanonicalizer.Canonical form = state.canonicalizer.canonicalize(puzzle);
+            state.lastForm = form != null && !form.getBoard().equals(puzzle) ? form : null;
+        }
+        return state.lastForm;
+    }
+
+    /**
+     * Removes every entry. The hit, miss and eviction counts are kept.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Computes the 64-bit fingerprint of a packed board: FNV-1a over the bytes followed by
+     * a final avalanche step so that nearby boards spread over all segments.
+     *
+     * @param packed The packed board
+     * @return The fingerprint
+     */
+    public static long fingerprint(byte[] packed) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : packed) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private Segment segmentFor(long fingerprint) {
+        return segments[(int) (fingerprint >>> 60) & (SEGMENT_COUNT - 1)];
+    }
+
+    /**
+     * Gets the number of lookups that found a solution.
+     *
+     * @return The hit count
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups that found no solution.
+     *
+     * @return The miss count
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of entries evicted to stay within the limits.
+     *
+     * @return The eviction count
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Gets the number of cached entries. A puzzle cached by its canonical form as well as
+     * as it is takes two.
+     *
+     * @return The entry count
+     */
+    public int getSize() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Gets the estimated memory held by the cached entries.
+     *
+     * @return The weight in bytes
+     */
+    public long getWeightBytes() {
+        long weight = 0;
+        for (Segment segment : segments) {
+            weight += segment.weight();
+        }
+        return weight;
+    }
+
+    /**
+     * Gets the maximum number of cached entries.
+     *
+     * @return The entry limit
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Gets the maximum estimated memory held by the cache.
+     *
+     * @return The weight limit in bytes
+     */
+    public long getMaxWeightBytes() {
+        return maxWeightBytes;
+    }
+
+    /**
+     * Gets whether puzzles are keyed by their canonical form.
+     *
+     * @return true if symmetric copies of a puzzle share a canonical entry
+     */
+    public boolean isCanonical() {
+        return canonical;
+    }
+
+    /**
+     * A thread's canonicalizer and the last puzzle it canonicalized.
+     */
+    private static class Canonicalization {
+        final SudokuCanonicalizer canonicalizer = new SudokuCanonicalizer(MAX_CANONICAL_STATES);
+        CompactBoard lastPuzzle;
+        SudokuCanonicalizer.Canonical lastForm;
+    }
+
+    /**
+     * A cached puzzle and its solution, both packed.
+     */
+    private static class Entry {
+        final byte[] puzzle;
+        final byte[] solution;
+        final int weight;
+
+        Entry(byte[] puzzle, byte[] solution) {
+            this.puzzle = puzzle;
+            this.solution = solution;
+            this.weight = ENTRY_OVERHEAD_BYTES + puzzle.length + solution.length;
+        }
+    }
+
+    /**
+     * One lock-protected part of the cache with its own LRU order and limits.
+     */
+    private static class Segment {
+        private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final int maxEntries;
+        private final long maxWeight;
+        private long weight;
+
+        Segment(int maxEntries, long maxWeight) {
+            this.maxEntries = maxEntries;
+            this.maxWeight = maxWeight;
+        }
+
+        synchronized byte[] get(long fingerprint, byte[] puzzle) {
+            Entry entry = entries.get(fingerprint);
+            if (entry == null || !Arrays.equals(entry.puzzle, puzzle)) {
+                return null; // Absent, or a different puzzle with the same fingerprint
+            }
+            return entry.solution;
+        }
+
+        /**
+         * Adds an entry and evicts the least recently used ones beyond the limits.
+         *
+         * @return The number of evicted entries
+         */
+        synchronized int put(long fingerprint, Entry entry) {
+            Entry previous = entries.put(fingerprint, entry);
+            if (previous != null) {
+                weight -= previous.weight;
+            }
+            weight += entry.weight;
+
+            int evicted = 0;
+            Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || weight > maxWeight) && eldest.hasNext()) {
+                Entry removed = eldest.next().getValue();
+                if (removed == entry) {
+                    break; // Never evict the entry just added
+                }
+                eldest.remove();
+                weight -= removed.weight;
+                evicted++;
+            }
+            return evicted;
+        }
+
+        synchronized void clear() {
+            entries.clear();
+            weight = 0;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized long weight() {
+            return weight;
+        }
+    }
+}
@@ -0,0 +1,442 @@
+package com.rmit.sudoku.cli;
+
+import com.rmit.sudoku.metrics.SudokuMetrics;
+import com.rmit.sudoku.model.CompactBoard;
+import com.rmit.sudoku.solver.BacktrackingSudokuSolver;
+import com.rmit.sudoku.solver.BitmaskSudokuSolver;
+import com.rmit.sudoku.solver.SudokuSolver;
+import com.rmit.sudoku.solver.SudokuTimeoutException;
+import com.rmit.sudoku.solver.dlx.SudokuDLXSolver;
+import com.rmit.sudoku.solver.propagation.PropagatingSudokuSolver;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Command-line mode that solves a file of puzzles in the standard 81-character line format.
+ * <p>
+ * The input is memory-mapped in line-aligned chunks that are processed by a pool of worker
+ * threads. Puzzles are parsed straight from the mapped bytes into a reused compact board, and solutions
+ * are written as fixed-size 82-byte records (81 digits and a newline) with positional writes,
+ * so the output keeps the input order even though chunks finish in any order. A first parallel
+ * pass counts the puzzles in every chunk to find where each chunk's records start.
+ * <p>
+ * Lines may end with {@code \n} or {@code \r\n}; empty lines are skipped. Puzzles use 1-9 for
+ * givens and 0 or '.' for empty cells. Puzzles without a solution, malformed lines and puzzles
+ * that fail to solve are written as 81 zeros, which no solution contains.
+ * <p>
+ * Usage: {@code solve-file <input> <output> [--engine dlx|bitmask|propagation|backtracking] [--threads N]}
+ */
+public class BulkSolverCli {
+
+    public static final String COMMAND = "solve-file";
+
+    private static final int CELL_COUNT = CompactBoard.CELL_COUNT;
+    private static final int RECORD_SIZE = CELL_COUNT + 1;
+    private static final int RECORDS_PER_WRITE = 1024;
+    private static final long MAX_CHUNK_BYTES = 256L * 1024 * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final long DEFAULT_TIMEOUT_MS = 120000; // 2 minutes
+
+    private final Path input;
+    private final Path output;
+    private final String engine;
+    private final int threads;
+
+    /**
+     * Creates a new BulkSolverCli.
+     *
+     * @param input The puzzle file
+     * @param output The solution file (created or truncated)
+     * @param engine The engine name: dlx, bitmask, propagation or backtracking
+     * @param threads The number of worker threads
+     */
+    public BulkSolverCli(Path input, Path output, String engine, int threads) {
+        this.input = input;
+        this.output = output;
+        this.engine = engine;
+        this.threads = Math.max(1, threads);
+        createEngine(engine); // Fail fast on unknown engine names
+    }
+
+    /**
+     * Runs the CLI with the arguments that follow the {@value #COMMAND} command.
+     *
+     * @param args Command line arguments
+     */
+    public static void main(String[] args) {
+        String engine = "dlx";
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<String> files = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if ("--engine".equals(args[i]) && i + 1 < args.length) {
+                    engine = args[++i];
+                } else if ("--threads".equals(args[i]) && i + 1 < args.length) {
+                    threads = Integer.parseInt(args[++i]);
+                } else {
+                    files.add(args[i]);
+                }
+            }
+            if (files.size() != 2) {
+                throw new IllegalArgumentException("Expected an input and an output file");
+            }
+
+            Report report = new BulkSolverCli(Paths.get(files.get(0)), Paths.get(files.get(1)), engine, threads).run();
+            report.print(System.out);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: " + COMMAND + " <input> <output> " +
+                    "[--engine dlx|bitmask|propagation|backtracking] [--threads N]");
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("Failed to solve file: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Solves every puzzle in the input file and writes the solutions in input order.
+     *
+     * @return Throughput and latency statistics
+     * @throws IOException if a file cannot be read or written
+     */
+    public Report run() throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            List<Chunk> chunks = split(in);
+
+            // First pass: count the puzzles in every chunk to find where its records start
+            List<Callable<Void>> counts = new ArrayList<>(chunks.size());
+            for (Chunk chunk : chunks) {
+                counts.add(() -> {
+                    chunk.countPuzzles();
+                    return null;
+                });
+            }
+            runAll(pool, counts);
+            long puzzles = 0;
+            for (Chunk chunk : chunks) {
+                chunk.firstRecord = puzzles;
+                puzzles += chunk.puzzleCount;
+            }
+
+            // Second pass: solve and write
+            long start = System.nanoTime();
+            List<Callable<Void>> solves = new ArrayList<>(chunks.size());
+            for (Chunk chunk : chunks) {
+                solves.add(() -> {
+                    chunk.solve(createEngine(engine), out);
+                    return null;
+                });
+            }
+            runAll(pool, solves);
+            long elapsedNanos = System.nanoTime() - start;
+
+            Report report = new Report(engine, threads, elapsedNanos);
+            for (Chunk chunk : chunks) {
+                report.add(chunk);
+            }
+            return report;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Splits the file into line-aligned chunks, enough to balance the workers and small enough to map.
+     */
+    private List<Chunk> split(FileChannel in) throws IOException {
+        long size = in.size();
+        long target = Math.max((long) threads * CHUNKS_PER_THREAD, (size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+        long nominal = Math.max(1, size / target);
+
+        List<Chunk> chunks = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = start + nominal >= size ? size : nextLineStart(in, start + nominal);
+            chunks.add(new Chunk(in.map(FileChannel.MapMode.READ_ONLY, start, end - start)));
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Finds the first position after {@code position} that starts a line.
+     */
+    private static long nextLineStart(FileChannel in, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long size = in.size();
+        while (position < size) {
+            buffer.clear();
+            int read = in.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static void runAll(ExecutorService pool, List<Callable<Void>> tasks) throws IOException {
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while solving", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Worker failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    /**
+     * A solver as used by the CLI: one instance per worker task.
+     */
+    private interface PuzzleEngine {
+        CompactBoard solve(CompactBoard board) throws SudokuTimeoutException;
+    }
+
+    private static PuzzleEngine createEngine(String name) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "dlx":
+                return new SudokuDLXSolver(DEFAULT_TIMEOUT_MS, false)::findSolution;
+            case "bitmask":
+                return withoutMetrics(new BitmaskSudokuSolver(DEFAULT_TIMEOUT_MS, false))::solve;
+            case "propagation":
+                return withoutMetrics(new PropagatingSudokuSolver(null, DEFAULT_TIMEOUT_MS, false))::solve;
+            case "backtracking":
+                return withoutMetrics(new BacktrackingSudokuSolver(DEFAULT_TIMEOUT_MS, false))::solve;
+            default:
+                throw new IllegalArgumentException("Unknown engine: " + name);
+        }
+    }
+
+    /**
+     * Turns off a solver's metrics; the CLI times puzzles itself.
+     */
+    private static <T extends SudokuSolver> T withoutMetrics(T solver) {
+        solver.setMetricsMode(SudokuMetrics.Mode.OFF);
+        return solver;
+    }
+
+    /**
+     * A line-aligned region of the input file.
+     */
+    private static class Chunk {
+        private final MappedByteBuffer data;
+        private long puzzleCount;
+        private long firstRecord;
+
+        // Results of the solve pass
+        private long unsolved;
+        private long malformed;
+        private final LatencyHistogram latencies = new LatencyHistogram();
+
+        Chunk(MappedByteBuffer data) {
+            this.data = data;
+        }
+
+        /**
+         * Counts the non-empty lines of the chunk.
+         */
+        void countPuzzles() {
+            long count = 0;
+            int lineStart = 0;
+            int limit = data.limit();
+            for (int i = 0; i <= limit; i++) {
+                if (i == limit || data.get(i) == '\n') {
+                    if (lineEnd(lineStart, i) > lineStart) {
+                        count++;
+                    }
+                    lineStart = i + 1;
+                }
+            }
+            puzzleCount = count;
+        }
+
+        /**
+         * Solves every puzzle of the chunk and writes its records starting at {@link #firstRecord}.
+         */
+        void solve(PuzzleEngine engine, FileChannel out) throws IOException {
+            CompactBoard board = new CompactBoard();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(RECORDS_PER_WRITE * RECORD_SIZE);
+            long position = firstRecord * RECORD_SIZE;
+
+            int lineStart = 0;
+            int limit = data.limit();
+            for (int i = 0; i <= limit; i++) {
+                if (i != limit && data.get(i) != '\n') {
+                    continue;
+                }
+                int end = lineEnd(lineStart, i);
+                if (end > lineStart) {
+                    CompactBoard solution = null;
+                    if (parse(lineStart, end, board)) {
+                        long start = System.nanoTime();
+                        try {
+                            solution = engine.solve(board);
+                        } catch (SudokuTimeoutException | IllegalArgumentException e) {
+                            solution = null; // Written as unsolved
+                        }
+                        latencies.record(System.nanoTime() - start);
+                        if (solution == null) {
+                            unsolved++;
+                        }
+                    } else {
+                        malformed++;
+                    }
+
+                    writeRecord(buffer, solution);
+                    if (!buffer.hasRemaining()) {
+                        position = flush(buffer, out, position);
+                    }
+                }
+                lineStart = i + 1;
+            }
+            flush(buffer, out, position);
+        }
+
+        /**
+         * Gets the end of the line content, dropping a trailing carriage return.
+         */
+        private int lineEnd(int lineStart, int newline) {
+            int end = newline;
+            if (end > lineStart && data.get(end - 1) == '\r') {
+                end--;
+            }
+            return end;
+        }
+
+        /**
+         * Parses the puzzle between {@code start} and {@code end} into {@code board}.
+         *
+         * @return false if the line is not a valid puzzle line
+         */
+        private boolean parse(int start, int end, CompactBoard board) {
+            if (end - start != CELL_COUNT) {
+                return false;
+            }
+            for (int cell = 0; cell < CELL_COUNT; cell++) {
+                byte c = data.get(start + cell);
+                int value;
+                if (c >= '1' && c <= '9') {
+                    value = c - '0';
+                } else if (c == '0' || c == '.') {
+                    value = 0;
+                } else {
+                    return false;
+                }
+                board.set(cell, value);
+            }
+            return true;
+        }
+
+        private static void writeRecord(ByteBuffer buffer, CompactBoard solution) {
+            for (int cell = 0; cell < CELL_COUNT; cell++) {
+                int value = solution != null ? solution.get(cell) : 0;
+                buffer.put((byte) ('0' + value));
+            }
+            buffer.put((byte) '\n');
+        }
+
+        private static long flush(ByteBuffer buffer, FileChannel out, long position) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += out.write(buffer, position);
+            }
+            buffer.clear();
+            return position;
+        }
+    }
+
+    /**
+     * Throughput and latency statistics of one run.
+     */
+    public static class Report {
+        private final String engine;
+        private final int threads;
+        private final long elapsedNanos;
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private long puzzles;
+        private long unsolved;
+        private long malformed;
+
+        Report(String engine, int threads, long elapsedNanos) {
+            this.engine = engine;
+            this.threads = threads;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        private void add(Chunk chunk) {
+            puzzles += chunk.puzzleCount;
+            unsolved += chunk.unsolved;
+            malformed += chunk.malformed;
+            latencies.merge(chunk.latencies);
+        }
+
+        /**
+         * Gets the number of puzzles solved per second of wall-clock time.
+         *
+         * @return The throughput
+         */
+        public double getPuzzlesPerSecond() {
+            return elapsedNanos > 0 ? puzzles * 1_000_000_000.0 / elapsedNanos : 0;
+        }
+
+        /**
+         * Gets the merged solve latencies of all workers.
+         *
+         * @return The latency histogram
+         */
+        public LatencyHistogram getLatencies() {
+            return latencies;
+        }
+
+        /**
+         * Prints the report.
+         *
+         * @param out The stream to print to
+         */
+        public void print(PrintStream out) {
+            out.println("===== Bulk Solve Report =====");
+            out.println("Engine: " + engine + ", threads: " + threads);
+            out.println("Puzzles: " + puzzles + " (" + unsolved + " unsolved, " + malformed + " malformed)");
+            out.printf(Locale.ROOT, "Time: %.3f s%n", elapsedNanos / 1e9);
+            out.printf(Locale.ROOT, "Throughput: %.0f puzzles/sec%n", getPuzzlesPerSecond());
+            out.printf(Locale.ROOT, "Latency (us): p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+                    latencies.getValueAtPercentile(50) / 1000.0,
+                    latencies.getValueAtPercentile(90) / 1000.0,
+                    latencies.getValueAtPercentile(99) / 1000.0,
+                    latencies.getValueAtPercentile(99.9) / 1000.0,
+                    latencies.getMaxValue() / 1000.0);
+            out.println("=============================");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.rmit.sudoku.cli;
+
+/**
+ * Log-linear histogram of latencies in nanoseconds with a fixed memory footprint.
+ * <p>
+ * Values below 32 are counted exactly; larger values fall into buckets that split every power of
+ * two into 16 equal parts, so a reported percentile is at most about 6% above the true value.
+ * Each worker records into its own histogram without synchronisation, and the histograms are
+ * combined with {@link #merge(LatencyHistogram)} at the end.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;     // exact values 0-31
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;     // buckets per power of two
+    private static final int BUCKET_COUNT = SUB_BUCKETS + (Long.SIZE - SUB_BUCKET_BITS) * HALF_SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long maxValue;
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos The latency in nanoseconds (negative values are counted as 0)
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[indexOf(value)]++;
+        totalCount++;
+        if (value > maxValue) {
+            maxValue = value;
+        }
+    }
+
+    /**
+     * Adds the counts of another histogram to this one.
+     *
+     * @param other The histogram to add
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    /**
+     * Gets the latency at or below which the given share of the recorded values fall.
+     *
+     * @param percentile The percentile, between 0 and 100
+     * @return The upper bound of the bucket holding that percentile, in nanoseconds (0 if empty)
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * totalCount);
+        rank = Math.max(1, Math.min(totalCount, rank));
+
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return The count
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Gets the largest recorded value.
+     *
+     * @return The maximum latency in nanoseconds
+     */
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    private static int indexOf(long value) {
+        int extraBits = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        if (extraBits <= 0) {
+            return (int) value;
+        }
+        int sub = (int) (value >>> extraBits); // Between HALF_SUB_BUCKETS and SUB_BUCKETS - 1
+        return SUB_BUCKETS + (extraBits - 1) * HALF_SUB_BUCKETS + (sub - HALF_SUB_BUCKETS);
+    }
+
+    private static long highestValueIn(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int extraBits = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+        long sub = (index - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+        return ((sub + 1) << extraBits) - 1;
+    }
+}
@@ -1,36 +1,100 @@
 package com.rmit.sudoku.controller;
 
 import com.rmit.sudoku.RMIT_Sudoku_Solver;
+import com.rmit.sudoku.batch.BatchGenerator;
+import com.rmit.sudoku.batch.BatchSolver;
+import com.rmit.sudoku.cache.SolutionCache;
+import com.rmit.sudoku.generator.PuzzlePool;
 import com.rmit.sudoku.generator.SudokuGenerator;
 import com.rmit.sudoku.metrics.SudokuMetrics;
+import com.rmit.sudoku.model.CompactBoard;
+import com.rmit.sudoku.model.MetricsResponse;
+import com.rmit.sudoku.model.PuzzlePoolMetrics;
 import com.rmit.sudoku.model.SudokuRequest;
 import com.rmit.sudoku.model.SudokuResponse;
 import com.rmit.sudoku.solver.BacktrackingSudokuSolver;
+import com.rmit.sudoku.solver.CancellationToken;
+import com.rmit.sudoku.solver.PortfolioSudokuSolver;
+import com.rmit.sudoku.solver.SolveResult;
+import com.rmit.sudoku.solver.SudokuCancelledException;
+import com.rmit.sudoku.solver.SudokuTimeoutException;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.annotation.PreDestroy;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RestController
 @RequestMapping("/api/sudoku")
 public class SudokuController {
 
+    // Deadline of a solve or generate request that does not ask for one, and the longest one it may ask for
+    private static final long DEFAULT_SOLVE_TIMEOUT_MS = 120000;
+    private static final long MAX_SOLVE_TIMEOUT_MS = 120000;
+    // How long the container waits past a solve's deadline before answering without it
+    private static final long ASYNC_GRACE_MS = 5000;
+
+    private final ExecutorService solveExecutor = newSolveExecutor();
     private final RMIT_Sudoku_Solver solver = new RMIT_Sudoku_Solver();
-    private final SudokuGenerator generator = new SudokuGenerator();
+    private final PuzzlePool puzzlePool;
+    private final PortfolioSudokuSolver portfolio = new PortfolioSudokuSolver(120000, false);
+    private final BatchSolver batchSolver = new BatchSolver();
+    private final BatchGenerator batchGenerator = new BatchGenerator();
+    private final SolutionCache solutionCache = new SolutionCache();
+
+    /**
+     * Creates the controller, sizing the puzzle pools from the {@code sudoku.pool.*} properties.
+     *
+     * @param poolThreads The number of background puzzle generator threads
+     * @param poolCapacity The number of puzzles kept per difficulty (the high watermark)
+     * @param poolLowWatermark The pool size at which refilling starts
+     */
+    public SudokuController(
+            @Value("${sudoku.pool.threads:" + PuzzlePool.DEFAULT_THREADS + "}") int poolThreads,
+            @Value("${sudoku.pool.capacity:" + PuzzlePool.DEFAULT_CAPACITY + "}") int poolCapacity,
+            @Value("${sudoku.pool.low-watermark:" + PuzzlePool.DEFAULT_LOW_WATERMARK + "}") int poolLowWatermark) {
+        this.puzzlePool = new PuzzlePool(poolThreads, poolCapacity, poolLowWatermark);
+    }
 
+    /**
+     * Solves a Sudoku puzzle using the backtracking algorithm.
+     *
+     * @param request The request containing the puzzle to solve and, optionally, its deadline
+     * @return A response containing the solved puzzle, completed once the solve finishes or stops
+     */
     @PostMapping("/solve")
-    public SudokuResponse solveSudoku(@RequestBody SudokuRequest request) {
-        int[][] board = request.getBoard();
-        int[][] solvedBoard = null;
+    public DeferredResult<SudokuResponse> solveSudoku(@RequestBody SudokuRequest request) {
+        return solveAsync(request, this::solveWithBacktracking);
+    }
+
+    private SudokuResponse solveWithBacktracking(int[][] board, CancellationToken token) throws SudokuTimeoutException {
         SudokuResponse response = new SudokuResponse();
 
+        SudokuResponse cached = cachedResponse(board);
+        if (cached != null) {
+            return cached;
+        }
+
+        SolveResult result;
         try {
-            solvedBoard = solver.solve(board);
+            result = solver.solveWithBacktracking(board, token);
         } catch (RuntimeException e) {
-            // Handle timeout or other exceptions
+            // Handle invalid boards and other failures; timeouts are answered by solveAsync
             response.setBoard(board);
             response.setSolved(false);
             response.setMessage("Failed to solve puzzle: " + e.getMessage());
@@ -38,15 +102,14 @@ public class SudokuController {
         }
 
         // Add performance metrics to the response
-        SudokuMetrics metrics = solver.getBacktrackingMetrics();
+        int[][] solvedBoard = result.getSolution();
+        SudokuMetrics metrics = result.getMetrics();
         if (metrics != null) {
-            response.setOperationCount(metrics.getOperationCount());
-            response.setTimeTakenMs(metrics.getTimeTaken());
-            response.setMaxRecursionDepth(metrics.getMaxRecursionDepth());
-            response.setMemoryUsed(metrics.getFormattedMemoryUsed());
+            addMetrics(response, metrics);
         }
 
         if (solvedBoard != null) {
+            cacheSolution(board, solvedBoard);
             response.setBoard(solvedBoard);
             response.setSolved(true);
             if (metrics != null) {
@@ -70,22 +133,34 @@ public class SudokuController {
             }
         }
 
+        addCacheStats(response);
         return response;
     }
 
     /**
-     * Generates a new Sudoku puzzle with the specified difficulty.
+     * Generates a new Sudoku puzzle with the specified difficulty. Puzzles come from the
+     * pre-generated pool; one is generated on the request thread only if the pool is empty,
+     * and that generation stops at the request's deadline.
      *
      * @param difficulty The difficulty level (EASY, MEDIUM, HARD, EXPERT)
+     * @param timeoutMs The deadline of a synchronous generation in milliseconds; the default if absent
      * @return A response containing the generated puzzle
      */
     @GetMapping("/generate/{difficulty}")
-    public SudokuResponse generatePuzzle(@PathVariable String difficulty) {
+    public SudokuResponse generatePuzzle(@PathVariable String difficulty,
+                                         @RequestParam(required = false) Long timeoutMs) {
         SudokuResponse response = new SudokuResponse();
+        long deadlineMs = timeoutMs != null ? timeoutMs : DEFAULT_SOLVE_TIMEOUT_MS;
+        if (deadlineMs < 1 || deadlineMs > MAX_SOLVE_TIMEOUT_MS) {
+            response.setBoard(new int[9][9]);
+            response.setSolved(false);
+            response.setMessage("Timeout must be between 1 and " + MAX_SOLVE_TIMEOUT_MS + " ms");
+            return response;
+        }
 
         try {
             SudokuGenerator.Difficulty difficultyLevel = SudokuGenerator.Difficulty.valueOf(difficulty.toUpperCase());
-            int[][] puzzle = generator.generate(difficultyLevel);
+            int[][] puzzle = puzzlePool.take(difficultyLevel, new CancellationToken(deadlineMs));
 
             response.setBoard(puzzle);
             response.setSolved(false);
@@ -96,27 +171,74 @@ public class SudokuController {
             response.setBoard(emptyBoard);
             response.setSolved(false);
             response.setMessage("Invalid difficulty level. Valid options are: EASY, MEDIUM, HARD, EXPERT");
+        } catch (SudokuTimeoutException e) {
+            // The pool was empty and generating on this thread ran out of time
+            response.setBoard(new int[9][9]);
+            response.setSolved(false);
+            response.setTimedOut(true);
+            response.setTimeoutMs(deadlineMs);
+            response.setMessage("No " + difficulty.toUpperCase() + " puzzle generated within the " +
+                    deadlineMs + " ms deadline");
         }
 
         return response;
     }
 
+    /**
+     * Generates a batch of puzzles in parallel and streams them back as newline-delimited JSON,
+     * one line per puzzle in completion order, each carrying its index and its own seed. The same
+     * difficulty, count and seed always give the same puzzles. An invalid request produces a
+     * single line with index -1.
+     *
+     * @param difficulty The difficulty level (EASY, MEDIUM, HARD, EXPERT)
+     * @param count The number of puzzles
+     * @param seed The master seed of the batch; a random one is used if absent
+     * @return The streamed puzzles
+     */
+    @GetMapping(value = "/generate/{difficulty}/batch", produces = "application/x-ndjson")
+    public StreamingResponseBody generateBatch(@PathVariable String difficulty,
+                                               @RequestParam int count,
+                                               @RequestParam(required = false) Long seed) {
+        SudokuGenerator.Difficulty difficultyLevel;
+        try {
+            difficultyLevel = SudokuGenerator.Difficulty.valueOf(difficulty.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return out -> batchGenerator.writeRejection(out,
+                    "Invalid difficulty level. Valid options are: EASY, MEDIUM, HARD, EXPERT");
+        }
+        if (count < 1 || count > BatchGenerator.MAX_BATCH_SIZE) {
+            return out -> batchGenerator.writeRejection(out,
+                    "Count must be between 1 and " + BatchGenerator.MAX_BATCH_SIZE);
+        }
+
+        long batchSeed = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+        return out -> batchGenerator.generateAll(difficultyLevel, count, batchSeed, out);
+    }
+
     /**
      * Solves a Sudoku puzzle using the Dancing Links algorithm.
      *
-     * @param request The request containing the puzzle to solve
-     * @return A response containing the solved puzzle
+     * @param request The request containing the puzzle to solve and, optionally, its deadline
+     * @return A response containing the solved puzzle, completed once the solve finishes or stops
      */
     @PostMapping("/solve/dlx")
-    public SudokuResponse solveSudokuWithDLX(@RequestBody SudokuRequest request) {
-        int[][] board = request.getBoard();
-        int[][] solvedBoard = null;
+    public DeferredResult<SudokuResponse> solveSudokuWithDLX(@RequestBody SudokuRequest request) {
+        return solveAsync(request, this::solveWithDLX);
+    }
+
+    private SudokuResponse solveWithDLX(int[][] board, CancellationToken token) throws SudokuTimeoutException {
         SudokuResponse response = new SudokuResponse();
 
+        SudokuResponse cached = cachedResponse(board);
+        if (cached != null) {
+            return cached;
+        }
+
+        SolveResult result;
         try {
-            solvedBoard = solver.solveDLX(board);
+            result = solver.solveWithDLX(board, token);
         } catch (RuntimeException e) {
-            // Handle timeout or other exceptions
+            // Handle invalid boards and other failures; timeouts are answered by solveAsync
             response.setBoard(board);
             response.setSolved(false);
             response.setMessage("Failed to solve puzzle with DLX: " + e.getMessage());
@@ -124,15 +246,14 @@ public class SudokuController {
         }
 
         // Add performance metrics to the response
-        SudokuMetrics metrics = solver.getDancingLinksMetrics();
+        int[][] solvedBoard = result.getSolution();
+        SudokuMetrics metrics = result.getMetrics();
         if (metrics != null) {
-            response.setOperationCount(metrics.getOperationCount());
-            response.setTimeTakenMs(metrics.getTimeTaken());
-            response.setMaxRecursionDepth(metrics.getMaxRecursionDepth());
-            response.setMemoryUsed(metrics.getFormattedMemoryUsed());
+            addMetrics(response, metrics);
         }
 
         if (solvedBoard != null) {
+            cacheSolution(board, solvedBoard);
             response.setBoard(solvedBoard);
             response.setSolved(true);
             if (metrics != null) {
@@ -156,18 +277,160 @@ public class SudokuController {
             }
         }
 
+        addCacheStats(response);
+        return response;
+    }
+
+    /**
+     * Solves a Sudoku puzzle using the bitmask backtracking algorithm with MRV cell selection.
+     *
+     * @param request The request containing the puzzle to solve and, optionally, its deadline
+     * @return A response containing the solved puzzle, completed once the solve finishes or stops
+     */
+    @PostMapping("/solve/bitmask")
+    public DeferredResult<SudokuResponse> solveSudokuWithBitmask(@RequestBody SudokuRequest request) {
+        return solveAsync(request, this::solveWithBitmask);
+    }
+
+    private SudokuResponse solveWithBitmask(int[][] board, CancellationToken token) throws SudokuTimeoutException {
+        SudokuResponse response = new SudokuResponse();
+
+        SudokuResponse cached = cachedResponse(board);
+        if (cached != null) {
+            return cached;
+        }
+
+        SolveResult result;
+        try {
+            result = solver.solveWithBitmask(board, token);
+        } catch (RuntimeException e) {
+            // Handle invalid boards and other failures; timeouts are answered by solveAsync
+            response.setBoard(board);
+            response.setSolved(false);
+            response.setMessage("Failed to solve puzzle with bitmask backtracking: " + e.getMessage());
+            return response;
+        }
+
+        // Add performance metrics to the response
+        int[][] solvedBoard = result.getSolution();
+        SudokuMetrics metrics = result.getMetrics();
+        if (metrics != null) {
+            addMetrics(response, metrics);
+        }
+
+        if (solvedBoard != null) {
+            cacheSolution(board, solvedBoard);
+            response.setBoard(solvedBoard);
+            response.setSolved(true);
+            if (metrics != null) {
+                response.setMessage("Puzzle solved successfully with bitmask backtracking in " + metrics.getTimeTaken() +
+                        " ms using " + metrics.getOperationCount() + " operations. " +
+                        "Space complexity: O(1) constant, Max recursion depth: " + metrics.getMaxRecursionDepth() +
+                        ", Memory used: " + metrics.getFormattedMemoryUsed() + ".");
+            } else {
+                response.setMessage("Puzzle solved successfully with bitmask backtracking.");
+            }
+        } else {
+            response.setBoard(board);
+            response.setSolved(false);
+            if (metrics != null) {
+                response.setMessage("No solution exists for this puzzle. Attempted with bitmask backtracking for " +
+                        metrics.getTimeTaken() + " ms using " + metrics.getOperationCount() + " operations. " +
+                        "Space complexity: O(1) constant, Max recursion depth: " + metrics.getMaxRecursionDepth() +
+                        ", Memory used: " + metrics.getFormattedMemoryUsed() + ".");
+            } else {
+                response.setMessage("No solution exists for this puzzle.");
+            }
+        }
+
+        addCacheStats(response);
+        return response;
+    }
+
+    /**
+     * Solves a Sudoku puzzle by racing all engines concurrently and returning the first verified solution.
+     *
+     * @param request The request containing the puzzle to solve and, optionally, its deadline
+     * @return A response containing the solved puzzle and the name of the winning engine
+     */
+    @PostMapping("/solve/fastest")
+    public DeferredResult<SudokuResponse> solveSudokuFastest(@RequestBody SudokuRequest request) {
+        return solveAsync(request, this::solveWithPortfolio);
+    }
+
+    private SudokuResponse solveWithPortfolio(int[][] board, CancellationToken token) throws SudokuTimeoutException {
+        SudokuResponse response = new SudokuResponse();
+
+        SudokuResponse cached = cachedResponse(board);
+        if (cached != null) {
+            cached.setSolvedBy("Solution cache");
+            return cached;
+        }
+
+        PortfolioSudokuSolver.Result result;
+        try {
+            result = portfolio.race(board, token);
+        } catch (RuntimeException e) {
+            // Handle invalid boards and other failures; timeouts are answered by solveAsync
+            response.setBoard(board);
+            response.setSolved(false);
+            response.setMessage("Failed to solve puzzle with any solver: " + e.getMessage());
+            return response;
+        }
+
+        // Add the winner's performance metrics to the response
+        SudokuMetrics metrics = result.getMetrics();
+        response.setSolvedBy(result.getEngineName());
+        if (metrics != null) {
+            addMetrics(response, metrics);
+        }
+
+        if (result.getSolution() != null) {
+            cacheSolution(board, result.getSolution());
+            response.setBoard(result.getSolution());
+            response.setSolved(true);
+            if (metrics != null) {
+                response.setMessage("Puzzle solved fastest by " + result.getEngineName() + " in " +
+                        metrics.getTimeTaken() + " ms using " + metrics.getOperationCount() + " operations. " +
+                        "Max recursion depth: " + metrics.getMaxRecursionDepth() +
+                        ", Memory used: " + metrics.getFormattedMemoryUsed() + ".");
+            } else {
+                response.setMessage("Puzzle solved fastest by " + result.getEngineName() + ".");
+            }
+        } else {
+            response.setBoard(board);
+            response.setSolved(false);
+            response.setMessage("No solution exists for this puzzle (proven by " + result.getEngineName() + ").");
+        }
+
+        addCacheStats(response);
         return response;
     }
 
+    /**
+     * Solves a batch of puzzles and streams the results back as newline-delimited JSON, one line
+     * per puzzle in completion order, each carrying the index of its puzzle in the request.
+     *
+     * @param body The request body: a JSON array of puzzles, or one 81-character puzzle per line
+     * @return The streamed results
+     */
+    @PostMapping(value = "/solve/batch", produces = "application/x-ndjson")
+    public StreamingResponseBody solveBatch(InputStream body) {
+        return out -> batchSolver.solveAll(body, out);
+    }
+
     /**
      * Solves a Sudoku puzzle using both algorithms and compares their performance.
      *
-     * @param request The request containing the puzzle to solve
+     * @param request The request containing the puzzle to solve and, optionally, the deadline of both solves
      * @return A response containing the solved puzzle and comparison metrics
      */
     @PostMapping("/solve/compare")
-    public SudokuResponse compareSolvers(@RequestBody SudokuRequest request) {
-        int[][] board = request.getBoard();
+    public DeferredResult<SudokuResponse> compareSolvers(@RequestBody SudokuRequest request) {
+        return solveAsync(request, this::compareSolvers);
+    }
+
+    private SudokuResponse compareSolvers(int[][] board, CancellationToken token) throws SudokuTimeoutException {
         SudokuResponse response = new SudokuResponse();
 
         // Solve with backtracking
@@ -176,8 +439,9 @@ public class SudokuController {
         String backtrackingMessage = "";
 
         try {
-            backtrackingSolution = solver.solve(board);
-            backtrackingMetrics = solver.getBacktrackingMetrics();
+            SolveResult result = solver.solveWithBacktracking(board, token);
+            backtrackingSolution = result.getSolution();
+            backtrackingMetrics = result.getMetrics();
             if (backtrackingMetrics != null) {
                 backtrackingMessage = "Backtracking: " + backtrackingMetrics.getTimeTaken() +
                         " ms, " + backtrackingMetrics.getOperationCount() + " operations, " +
@@ -194,8 +458,9 @@ public class SudokuController {
         String dlxMessage = "";
 
         try {
-            dlxSolution = solver.solveDLX(board);
-            dlxMetrics = solver.getDancingLinksMetrics();
+            SolveResult result = solver.solveWithDLX(board, token);
+            dlxSolution = result.getSolution();
+            dlxMetrics = result.getMetrics();
             if (dlxMetrics != null) {
                 dlxMessage = "Dancing Links: " + dlxMetrics.getTimeTaken() +
                         " ms, " + dlxMetrics.getOperationCount() + " operations, " +
@@ -217,26 +482,14 @@ public class SudokuController {
             // Use metrics from the faster algorithm
             if (backtrackingMetrics != null && dlxMetrics != null) {
                 if (backtrackingMetrics.getTimeTaken() <= dlxMetrics.getTimeTaken()) {
-                    response.setOperationCount(backtrackingMetrics.getOperationCount());
-                    response.setTimeTakenMs(backtrackingMetrics.getTimeTaken());
-                    response.setMaxRecursionDepth(backtrackingMetrics.getMaxRecursionDepth());
-                    response.setMemoryUsed(backtrackingMetrics.getFormattedMemoryUsed());
+                    addMetrics(response, backtrackingMetrics);
                 } else {
-                    response.setOperationCount(dlxMetrics.getOperationCount());
-                    response.setTimeTakenMs(dlxMetrics.getTimeTaken());
-                    response.setMaxRecursionDepth(dlxMetrics.getMaxRecursionDepth());
-                    response.setMemoryUsed(dlxMetrics.getFormattedMemoryUsed());
+                    addMetrics(response, dlxMetrics);
                 }
             } else if (backtrackingMetrics != null) {
-                response.setOperationCount(backtrackingMetrics.getOperationCount());
-                response.setTimeTakenMs(backtrackingMetrics.getTimeTaken());
-                response.setMaxRecursionDepth(backtrackingMetrics.getMaxRecursionDepth());
-                response.setMemoryUsed(backtrackingMetrics.getFormattedMemoryUsed());
+                addMetrics(response, backtrackingMetrics);
             } else if (dlxMetrics != null) {
-                response.setOperationCount(dlxMetrics.getOperationCount());
-                response.setTimeTakenMs(dlxMetrics.getTimeTaken());
-                response.setMaxRecursionDepth(dlxMetrics.getMaxRecursionDepth());
-                response.setMemoryUsed(dlxMetrics.getFormattedMemoryUsed());
+                addMetrics(response, dlxMetrics);
             }
         } else {
             response.setBoard(board);
@@ -246,4 +499,209 @@ public class SudokuController {
 
         return response;
     }
+
+    /**
+     * Gets service-wide metrics: the solution cache statistics and the depth, refill rate,
+     * fallback count and failure count of each puzzle pool.
+     *
+     * @return The metrics
+     */
+    @GetMapping("/metrics")
+    public MetricsResponse getMetrics() {
+        MetricsResponse response = new MetricsResponse();
+        long hits = solutionCache.getHitCount();
+        long misses = solutionCache.getMissCount();
+        response.setCacheHits(hits);
+        response.setCacheMisses(misses);
+        response.setCacheEvictions(solutionCache.getEvictionCount());
+        response.setCacheSize(solutionCache.getSize());
+        response.setCacheWeightBytes(solutionCache.getWeightBytes());
+        response.setCacheHitRate(hits + misses > 0 ? (double) hits / (hits + misses) : 0);
+
+        List<PuzzlePoolMetrics> pools = new ArrayList<>();
+        for (SudokuGenerator.Difficulty difficulty : SudokuGenerator.Difficulty.values()) {
+            PuzzlePoolMetrics pool = new PuzzlePoolMetrics();
+            pool.setDifficulty(difficulty.name());
+            pool.setSize(puzzlePool.getSize(difficulty));
+            pool.setCapacity(puzzlePool.getCapacity());
+            pool.setLowWatermark(puzzlePool.getLowWatermark());
+            pool.setGenerated(puzzlePool.getGeneratedCount(difficulty));
+            pool.setServed(puzzlePool.getServedCount(difficulty));
+            pool.setFallbacks(puzzlePool.getFallbackCount(difficulty));
+            pool.setFailures(puzzlePool.getFailureCount(difficulty));
+            pool.setRefillRatePerSecond(puzzlePool.getRefillRate(difficulty));
+            pools.add(pool);
+        }
+        response.setPuzzlePools(pools);
+        return response;
+    }
+
+    /**
+     * Stops the puzzle pool's generator threads and the solve, portfolio and batch workers when
+     * the application context closes.
+     */
+    @PreDestroy
+    public void shutdown() {
+        puzzlePool.shutdown();
+        solveExecutor.shutdownNow();
+        portfolio.shutdown();
+        batchSolver.shutdown();
+        batchGenerator.shutdown();
+    }
+
+    /**
+     * Solves the puzzle of a request on a solve worker instead of the request thread. The solve
+     * stops once the request's deadline passes or the client goes away (the container then
+     * reports an error or a timeout for the request), so an abandoned request holds neither a
+     * container thread nor a solve worker.
+     *
+     * @param request The request containing the puzzle and, optionally, its deadline
+     * @param task The solve to run
+     * @return The response, completed once the solve finishes or stops
+     */
+    private DeferredResult<SudokuResponse> solveAsync(SudokuRequest request, SolveTask task) {
+        int[][] board = request.getBoard();
+        long timeoutMs = request.getTimeoutMs() != null ? request.getTimeoutMs() : DEFAULT_SOLVE_TIMEOUT_MS;
+        if (timeoutMs < 1 || timeoutMs > MAX_SOLVE_TIMEOUT_MS) {
+            DeferredResult<SudokuResponse> rejected = new DeferredResult<>();
+            SudokuResponse response = new SudokuResponse();
+            response.setBoard(board);
+            response.setSolved(false);
+            response.setMessage("Timeout must be between 1 and " + MAX_SOLVE_TIMEOUT_MS + " ms");
+            rejected.setResult(response);
+            return rejected;
+        }
+
+        CancellationToken token = new CancellationToken(timeoutMs);
+        DeferredResult<SudokuResponse> deferred = new DeferredResult<>(timeoutMs + ASYNC_GRACE_MS);
+        deferred.onTimeout(() -> {
+            token.cancel();
+            deferred.setResult(stoppedResponse(board, timeoutMs, true, null));
+        });
+        deferred.onError(error -> token.cancel()); // e.g. the client closed the connection
+        deferred.onCompletion(token::cancel);
+
+        solveExecutor.execute(() -> {
+            if (deferred.isSetOrExpired()) {
+                return; // Answered or abandoned while waiting for a worker
+            }
+            try {
+                deferred.setResult(task.solve(board, token));
+            } catch (SudokuCancelledException e) {
+                deferred.setResult(stoppedResponse(board, timeoutMs, false, e.getPartialMetrics()));
+            } catch (SudokuTimeoutException e) {
+                deferred.setResult(stoppedResponse(board, timeoutMs, true, e.getPartialMetrics()));
+            } catch (RuntimeException e) {
+                deferred.setErrorResult(e);
+            }
+        });
+        return deferred;
+    }
+
+    /**
+     * Builds the response for a solve that was stopped before it finished, with the statistics
+     * of the search up to that point.
+     *
+     * @param board The puzzle from the request
+     * @param timeoutMs The deadline of the request
+     * @param timedOut true if the deadline passed, false if the solve was cancelled
+     * @param metrics The metrics of the unfinished search, or null if there are none
+     * @return The response
+     */
+    private SudokuResponse stoppedResponse(int[][] board, long timeoutMs, boolean timedOut, SudokuMetrics metrics) {
+        SudokuResponse response = new SudokuResponse();
+        response.setBoard(board);
+        response.setSolved(false);
+        response.setTimedOut(timedOut);
+        response.setTimeoutMs(timeoutMs);
+
+        String message = timedOut ? "No solution found within the " + timeoutMs + " ms deadline."
+                : "Solving was cancelled.";
+        if (metrics != null) {
+            addMetrics(response, metrics);
+            message += " Searched for " + metrics.getTimeTaken() + " ms using " + metrics.getOperationCount() +
+                    " operations, max recursion depth " + metrics.getMaxRecursionDepth() + ".";
+        }
+        response.setMessage(message);
+        addCacheStats(response);
+        return response;
+    }
+
+    /**
+     * Builds the response for a puzzle whose solution is cached.
+     *
+     * @param board The puzzle from the request
+     * @return The response, or null if the solution is not cached
+     */
+    private SudokuResponse cachedResponse(int[][] board) {
+        CompactBoard puzzle;
+        try {
+            puzzle = CompactBoard.fromArray(board);
+        } catch (IllegalArgumentException e) {
+            return null; // Let the solver report the invalid board
+        }
+
+        long start = System.nanoTime();
+        CompactBoard solution = solutionCache.get(puzzle);
+        if (solution == null) {
+            return null;
+        }
+        long micros = (System.nanoTime() - start) / 1000;
+
+        SudokuResponse response = new SudokuResponse();
+        response.setBoard(solution.toArray());
+        response.setSolved(true);
+        response.setCacheHit(true);
+        response.setMessage("Puzzle solved from cache in " + micros + " microseconds.");
+        addCacheStats(response);
+        return response;
+    }
+
+    /**
+     * Caches the solution of a solved puzzle.
+     */
+    private void cacheSolution(int[][] board, int[][] solution) {
+        solutionCache.put(CompactBoard.fromArray(board), CompactBoard.fromArray(solution));
+    }
+
+    /**
+     * Adds the performance metrics of one solve to a response.
+     */
+    private void addMetrics(SudokuResponse response, SudokuMetrics metrics) {
+        response.setOperationCount(metrics.getOperationCount());
+        response.setTimeTakenMs(metrics.getTimeTaken());
+        response.setMaxRecursionDepth(metrics.getMaxRecursionDepth());
+        response.setMemoryUsed(metrics.getFormattedMemoryUsed());
+        response.setAllocatedBytes(metrics.getAllocatedBytes());
+        response.setAllocatedBytesByPhase(metrics.getAllocatedBytesByPhase());
+    }
+
+    /**
+     * Adds the cache hit, miss and eviction counts to a response.
+     */
+    private void addCacheStats(SudokuResponse response) {
+        response.setCacheHits(solutionCache.getHitCount());
+        response.setCacheMisses(solutionCache.getMissCount());
+        response.setCacheEvictions(solutionCache.getEvictionCount());
+    }
+
+    /**
+     * Creates the workers that run single solves, one per available processor.
+     */
+    private static ExecutorService newSolveExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "sudoku-solve-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * One solve of a request's puzzle, run on a solve worker.
+     */
+    @FunctionalInterface
+    private interface SolveTask {
+        SudokuResponse solve(int[][] board, CancellationToken token) throws SudokuTimeoutException;
+    }
 }
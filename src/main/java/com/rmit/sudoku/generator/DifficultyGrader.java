@@ -0,0 +1,160 @@
+package com.rmit.sudoku.generator;
+
+import com.rmit.sudoku.solver.propagation.ConstraintPropagator;
+import com.rmit.sudoku.solver.propagation.Technique;
+
+/**
+ * Grades puzzles by the human techniques needed to solve them.
+ * <p>
+ * The grader runs the {@link ConstraintPropagator} ladder without any guessing. Since the
+ * propagator always falls back to the simplest technique after progress, a harder technique
+ * only fires when nothing simpler works, so the hardest technique that fired is the hardest
+ * one the puzzle needs. The level follows from it:
+ * <ul>
+ *     <li>EASY: singles only</li>
+ *     <li>MEDIUM: also needs pointing or box/line reduction</li>
+ *     <li>HARD: also needs naked or hidden pairs or triples</li>
+ *     <li>EXPERT: the ladder stalls, so harder techniques or guessing are needed</li>
+ * </ul>
+ * The score adds up every step weighted by its technique, plus a penalty per cell left open
+ * when the ladder stalls, to order puzzles within a level.
+ * <p>
+ * Instances reuse one propagator and are not thread-safe.
+ */
+public class DifficultyGrader {
+
+    /** Score of one step of each technique, in {@link Technique} order. */
+    private static final int[] STEP_WEIGHTS = {1, 2, 5, 5, 10, 15, 20, 25};
+
+    /** Score of each cell the ladder cannot fill. */
+    private static final int OPEN_CELL_WEIGHT = 50;
+
+    private static final Technique[] TECHNIQUES = Technique.values();
+
+    private final ConstraintPropagator propagator = new ConstraintPropagator();
+
+    /**
+     * Grades a puzzle.
+     *
+     * @param puzzle 2D array representing the Sudoku puzzle (0 for empty cells, 1-9 for filled cells)
+     * @return The grade
+     * @throws IllegalArgumentException if the board is malformed or the techniques prove it has no solution
+     */
+    public Grade grade(int[][] puzzle) {
+        if (puzzle == null || puzzle.length != 9) {
+            throw new IllegalArgumentException("Board must be a 9x9 grid");
+        }
+        for (int[] row : puzzle) {
+            if (row == null || row.length != 9) {
+                throw new IllegalArgumentException("Board must be a 9x9 grid");
+            }
+            for (int value : row) {
+                if (value < 0 || value > 9) {
+                    throw new IllegalArgumentException("Board values must be between 0 and 9");
+                }
+            }
+        }
+        if (!propagator.load(puzzle)) {
+            throw new IllegalArgumentException("Board contains invalid values");
+        }
+        if (!propagator.propagate()) {
+            throw new IllegalArgumentException("No solution exists for this puzzle");
+        }
+
+        long[] counts = new long[TECHNIQUES.length];
+        Technique hardest = null;
+        long score = 0;
+        for (Technique technique : TECHNIQUES) {
+            long count = propagator.getTechniqueCount(technique);
+            counts[technique.ordinal()] = count;
+            if (count > 0) {
+                hardest = technique;
+                score += count * STEP_WEIGHTS[technique.ordinal()];
+            }
+        }
+        boolean solved = propagator.isSolved();
+        if (!solved) {
+            score += (long) propagator.getEmptyCount() * OPEN_CELL_WEIGHT;
+        }
+        return new Grade(levelOf(hardest, solved), hardest, solved, score, counts);
+    }
+
+    private static SudokuGenerator.Difficulty levelOf(Technique hardest, boolean solved) {
+        if (!solved) {
+            return SudokuGenerator.Difficulty.EXPERT;
+        }
+        if (hardest == null || hardest.compareTo(Technique.POINTING) < 0) {
+            return SudokuGenerator.Difficulty.EASY;
+        }
+        if (hardest.compareTo(Technique.NAKED_PAIR) < 0) {
+            return SudokuGenerator.Difficulty.MEDIUM;
+        }
+        return SudokuGenerator.Difficulty.HARD;
+    }
+
+    /**
+     * The grade of one puzzle.
+     */
+    public static class Grade {
+        private final SudokuGenerator.Difficulty level;
+        private final Technique hardestTechnique;
+        private final boolean solvedByTechniques;
+        private final long score;
+        private final long[] techniqueCounts;
+
+        Grade(SudokuGenerator.Difficulty level, Technique hardestTechnique, boolean solvedByTechniques,
+              long score, long[] techniqueCounts) {
+            this.level = level;
+            this.hardestTechnique = hardestTechnique;
+            this.solvedByTechniques = solvedByTechniques;
+            this.score = score;
+            this.techniqueCounts = techniqueCounts;
+        }
+
+        /**
+         * Gets the graded difficulty level.
+         *
+         * @return The level
+         */
+        public SudokuGenerator.Difficulty getLevel() {
+            return level;
+        }
+
+        /**
+         * Gets the hardest technique the ladder used.
+         *
+         * @return The technique, or null if the puzzle was already complete
+         */
+        public Technique getHardestTechnique() {
+            return hardestTechnique;
+        }
+
+        /**
+         * Gets whether the ladder solved the puzzle without guessing.
+         *
+         * @return true if the techniques alone solved the puzzle
+         */
+        public boolean isSolvedByTechniques() {
+            return solvedByTechniques;
+        }
+
+        /**
+         * Gets the weighted step score; higher is harder.
+         *
+         * @return The score
+         */
+        public long getScore() {
+            return score;
+        }
+
+        /**
+         * Gets how many placements or eliminations a technique made.
+         *
+         * @param technique The technique
+         * @return The step count
+         */
+        public long getTechniqueCount(Technique technique) {
+            return techniqueCounts[technique.ordinal()];
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.rmit.sudoku.generator;
+
+import com.rmit.sudoku.solver.CancellationToken;
+import com.rmit.sudoku.solver.SudokuCancelledException;
+import com.rmit.sudoku.solver.SudokuTimeoutException;
+
+import java.util.Arrays;
+
+/**
+ * Uniqueness checker for the clue-removal loop of puzzle generation.
+ * <p>
+ * The checker keeps the current partial puzzle live as row, column and box bitmasks plus an
+ * indexed list of empty cells, so removing or restoring a clue only flips three mask bits and
+ * moves one list entry. Searches start from that state and undo every placement before they
+ * return, so consecutive checks never rebuild anything.
+ * <p>
+ * {@link #tryRemoveClue(int, int)} uses the fact that the puzzle was dug out of a solved grid:
+ * that grid stays a solution after the removal, so the puzzle is still unique exactly when no
+ * solution puts a different digit in the removed cell. This needs a search for one solution
+ * per alternative digit instead of a full count to two.
+ * <p>
+ * Every check has its own timeout and can also be given the caller's {@link CancellationToken},
+ * which the search polls once every {@link CancellationToken#CHECK_INTERVAL} nodes.
+ */
+public class IncrementalUniquenessChecker {
+
+    private static final int GRID_SIZE = 9;
+    private static final int BOX_SIZE = 3;
+    private static final int CELL_COUNT = GRID_SIZE * GRID_SIZE;
+    private static final int ALL_DIGITS = (1 << GRID_SIZE) - 1; // bits 0-8 for digits 1-9
+    private static final long DEFAULT_TIMEOUT_MS = 120000; // 2 minutes
+
+    private static final int[] ROW_OF = new int[CELL_COUNT];
+    private static final int[] COL_OF = new int[CELL_COUNT];
+    private static final int[] BOX_OF = new int[CELL_COUNT];
+
+    static {
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            ROW_OF[cell] = cell / GRID_SIZE;
+            COL_OF[cell] = cell % GRID_SIZE;
+            BOX_OF[cell] = (ROW_OF[cell] / BOX_SIZE) * BOX_SIZE + COL_OF[cell] / BOX_SIZE;
+        }
+    }
+
+    private final long timeoutMs;
+
+    // Live state of the current partial puzzle
+    private final int[] cells = new int[CELL_COUNT];
+    private final int[] rowUsed = new int[GRID_SIZE];
+    private final int[] colUsed = new int[GRID_SIZE];
+    private final int[] boxUsed = new int[GRID_SIZE];
+    private final int[] emptyCells = new int[CELL_COUNT];
+    private final int[] emptyIndex = new int[CELL_COUNT]; // position of each empty cell in emptyCells
+    private int emptyCount;
+
+    // Per-search bookkeeping
+    private CancellationToken.Poller poller;
+
+    /**
+     * Creates a new IncrementalUniquenessChecker with the default timeout.
+     */
+    public IncrementalUniquenessChecker() {
+        this(DEFAULT_TIMEOUT_MS);
+    }
+
+    /**
+     * Creates a new IncrementalUniquenessChecker with a custom timeout per check.
+     *
+     * @param timeoutMs The timeout in milliseconds
+     */
+    public IncrementalUniquenessChecker(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Loads a puzzle, replacing the current one.
+     *
+     * @param puzzle 2D array representing the Sudoku puzzle (0 for empty cells, 1-9 for filled cells)
+     * @throws IllegalArgumentException if the board is malformed or contains duplicate givens
+     */
+    public void load(int[][] puzzle) {
+        if (puzzle == null || puzzle.length != GRID_SIZE) {
+            throw new IllegalArgumentException("Board must be a 9x9 grid");
+        }
+        for (int i = 0; i < GRID_SIZE; i++) {
+            if (puzzle[i] == null || puzzle[i].length != GRID_SIZE) {
+                throw new IllegalArgumentException("Board must be a 9x9 grid");
+            }
+        }
+
+        Arrays.fill(cells, 0);
+        Arrays.fill(rowUsed, 0);
+        Arrays.fill(colUsed, 0);
+        Arrays.fill(boxUsed, 0);
+        emptyCount = 0;
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            addEmpty(cell);
+        }
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            int value = puzzle[ROW_OF[cell]][COL_OF[cell]];
+            if (value < 0 || value > GRID_SIZE) {
+                throw new IllegalArgumentException("Board values must be between 0 and 9");
+            }
+            if (value != 0) {
+                restoreClue(ROW_OF[cell], COL_OF[cell], value);
+            }
+        }
+    }
+
+    /**
+     * Removes a clue from the current puzzle.
+     *
+     * @param row The row index
+     * @param col The column index
+     * @return The removed value, or 0 if the cell was already empty
+     */
+    public int removeClue(int row, int col) {
+        int cell = row * GRID_SIZE + col;
+        int value = cells[cell];
+        if (value == 0) {
+            return 0;
+        }
+        int bit = 1 << (value - 1);
+        rowUsed[ROW_OF[cell]] &= ~bit;
+        colUsed[COL_OF[cell]] &= ~bit;
+        boxUsed[BOX_OF[cell]] &= ~bit;
+        cells[cell] = 0;
+        addEmpty(cell);
+        return value;
+    }
+
+    /**
+     * Puts a clue back into an empty cell of the current puzzle.
+     *
+     * @param row The row index
+     * @param col The column index
+     * @param value The digit to place
+     * @throws IllegalArgumentException if the cell is filled or the digit is already used in its row, column or box
+     */
+    public void restoreClue(int row, int col, int value) {
+        if (value < 1 || value > GRID_SIZE) {
+            throw new IllegalArgumentException("Board values must be between 0 and 9");
+        }
+        int cell = row * GRID_SIZE + col;
+        int bit = 1 << (value - 1);
+        if (cells[cell] != 0
+                || ((rowUsed[ROW_OF[cell]] | colUsed[COL_OF[cell]] | boxUsed[BOX_OF[cell]]) & bit) != 0) {
+            throw new IllegalArgumentException("Board contains invalid values");
+        }
+        rowUsed[ROW_OF[cell]] |= bit;
+        colUsed[COL_OF[cell]] |= bit;
+        boxUsed[BOX_OF[cell]] |= bit;
+        cells[cell] = value;
+        removeEmpty(cell);
+    }
+
+    /**
+     * Removes a clue if the puzzle stays unique without it, and restores it otherwise. The
+     * current puzzle must have been dug out of a solved grid, so that the grid is still one
+     * of its solutions.
+     *
+     * @param row The row index
+     * @param col The column index
+     * @return true if the clue was removed
+     * @throws SudokuTimeoutException if the check takes longer than the time limit; the clue is restored
+     */
+    public boolean tryRemoveClue(int row, int col) throws SudokuTimeoutException {
+        return tryRemoveClue(row, col, null);
+    }
+
+    /**
+     * Removes a clue like {@link #tryRemoveClue(int, int)}, giving up once {@code token} is
+     * cancelled or its deadline passes.
+     *
+     * @param row The row index
+     * @param col The column index
+     * @param token The caller's cancellation token, or null
+     * @return true if the clue was removed
+     * @throws SudokuCancelledException if the token was cancelled before the check finished; the clue is restored
+     * @throws SudokuTimeoutException if the check takes longer than the time limit; the clue is restored
+     */
+    public boolean tryRemoveClue(int row, int col, CancellationToken token) throws SudokuTimeoutException {
+        int value = removeClue(row, col);
+        if (value == 0) {
+            return true;
+        }
+
+        int cell = row * GRID_SIZE + col;
+        int alternatives = candidates(cell) & ~(1 << (value - 1));
+        boolean removed = false;
+        CancellationToken checkToken = startCheck(token);
+        try {
+            // Any solution with another digit in this cell is a second solution
+            boolean secondSolution = false;
+            while (alternatives != 0 && !secondSolution) {
+                int bit = alternatives & -alternatives;
+                alternatives ^= bit;
+                restoreClue(row, col, Integer.numberOfTrailingZeros(bit) + 1);
+                try {
+                    secondSolution = search(0, 1) > 0;
+                } finally {
+                    removeClue(row, col);
+                }
+            }
+            if (poller.isStopped()) {
+                checkToken.throwIfStopped();
+            }
+            removed = !secondSolution;
+        } finally {
+            if (!removed) {
+                restoreClue(row, col, value);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Counts the solutions of the current puzzle, stopping once {@code limit} have been found.
+     * The puzzle is left unchanged.
+     *
+     * @param limit The count at which the search stops
+     * @return The number of solutions, at most {@code limit}
+     * @throws SudokuTimeoutException if counting takes longer than the time limit
+     */
+    public int countSolutions(int limit) throws SudokuTimeoutException {
+        return countSolutions(limit, null);
+    }
+
+    /**
+     * Counts solutions like {@link #countSolutions(int)}, giving up once {@code token} is
+     * cancelled or its deadline passes.
+     *
+     * @param limit The count at which the search stops
+     * @param token The caller's cancellation token, or null
+     * @return The number of solutions, at most {@code limit}
+     * @throws SudokuCancelledException if the token was cancelled before counting finished
+     * @throws SudokuTimeoutException if counting takes longer than the time limit
+     */
+    public int countSolutions(int limit, CancellationToken token) throws SudokuTimeoutException {
+        CancellationToken checkToken = startCheck(token);
+        int found = search(0, limit);
+        if (poller.isStopped()) {
+            checkToken.throwIfStopped();
+        }
+        return found;
+    }
+
+    /**
+     * Checks whether the current puzzle has exactly one solution.
+     *
+     * @return true if the puzzle has exactly one solution
+     * @throws SudokuTimeoutException if the check takes longer than the time limit
+     */
+    public boolean isUnique() throws SudokuTimeoutException {
+        return countSolutions(2) == 1;
+    }
+
+    /**
+     * Gets the number of clues in the current puzzle.
+     *
+     * @return The clue count
+     */
+    public int getClueCount() {
+        return CELL_COUNT - emptyCount;
+    }
+
+    /**
+     * Starts the poller of one check, which stops at the check's own timeout or with the caller's token.
+     */
+    private CancellationToken startCheck(CancellationToken token) {
+        CancellationToken checkToken = CancellationToken.withTimeout(token, timeoutMs);
+        poller = new CancellationToken.Poller(checkToken);
+        return checkToken;
+    }
+
+    /**
+     * Counts solutions by filling the empty cells from position {@code depth} onwards, always
+     * branching on the cell with the fewest candidates. Every placement is undone before
+     * returning, and the empty cells keep their index entries as they are reordered.
+     *
+     * @param depth Number of empty cells filled so far
+     * @param limit The count at which the search stops
+     * @return The number of solutions found, at most {@code limit}; meaningless once the search was told to stop
+     */
+    private int search(int depth, int limit) {
+        // Unwind if the check has been cancelled or has run out of time
+        if (poller.shouldStop()) {
+            return 0;
+        }
+
+        if (depth == emptyCount) {
+            return 1; // All cells are filled
+        }
+
+        // Pick the empty cell with the fewest candidates
+        int bestIndex = -1;
+        int bestCandidates = 0;
+        int bestCount = GRID_SIZE + 1;
+        for (int i = depth; i < emptyCount; i++) {
+            int candidates = candidates(emptyCells[i]);
+            int count = Integer.bitCount(candidates);
+            if (count < bestCount) {
+                bestCount = count;
+                bestCandidates = candidates;
+                bestIndex = i;
+                if (count <= 1) {
+                    break; // Cannot do better than a forced or dead cell
+                }
+            }
+        }
+        if (bestCount == 0) {
+            return 0; // Dead end: some cell has no candidate left
+        }
+
+        int cell = emptyCells[bestIndex];
+        swapEmpty(bestIndex, depth);
+
+        int row = ROW_OF[cell];
+        int col = COL_OF[cell];
+        int box = BOX_OF[cell];
+        int found = 0;
+        while (bestCandidates != 0 && found < limit) {
+            int bit = bestCandidates & -bestCandidates;
+            bestCandidates ^= bit;
+
+            rowUsed[row] |= bit;
+            colUsed[col] |= bit;
+            boxUsed[box] |= bit;
+            try {
+                found += search(depth + 1, limit - found);
+            } finally {
+                rowUsed[row] &= ~bit;
+                colUsed[col] &= ~bit;
+                boxUsed[box] &= ~bit;
+            }
+        }
+        return found;
+    }
+
+    private int candidates(int cell) {
+        return ~(rowUsed[ROW_OF[cell]] | colUsed[COL_OF[cell]] | boxUsed[BOX_OF[cell]]) & ALL_DIGITS;
+    }
+
+    private void addEmpty(int cell) {
+        emptyIndex[cell] = emptyCount;
+        emptyCells[emptyCount++] = cell;
+    }
+
+    private void removeEmpty(int cell) {
+        int index = emptyIndex[cell];
+        int last = emptyCells[--emptyCount];
+        emptyCells[index] = last;
+        emptyIndex[last] = index;
+    }
+
+    private void swapEmpty(int i, int j) {
+        int a = emptyCells[i];
+        int b = emptyCells[j];
+        emptyCells[i] = b;
+        emptyCells[j] = a;
+        emptyIndex[b] = i;
+        emptyIndex[a] = j;
+    }
+}
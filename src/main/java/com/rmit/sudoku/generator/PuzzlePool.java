@@ -0,0 +1,350 @@
+package com.rmit.sudoku.generator;
+
+import com.rmit.sudoku.model.CompactBoard;
+import com.rmit.sudoku.solver.CancellationToken;
+import com.rmit.sudoku.solver.SudokuTimeoutException;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Pools of pre-generated puzzles, one bounded queue per difficulty, refilled by background
+ * generator threads so that serving a puzzle is usually a queue poll.
+ * <p>
+ * Each pool refills with hysteresis: once it drops to its low watermark it is refilled up to its
+ * capacity (the high watermark), and then left alone until it drops to the low watermark again.
+ * Generator threads work on the refilling pool that is emptiest relative to its capacity, so a
+ * slow difficulty does not starve behind a fast one, and they sleep while no pool needs refilling.
+ * A request that finds its pool empty generates a puzzle on its own thread instead. Puzzles are
+ * generated with {@link SudokuGenerator#generateGraded}, so each pool holds puzzles graded at its
+ * difficulty rather than puzzles that merely have its clue count.
+ * <p>
+ * Puzzles wait in the pools as {@link CompactBoard}s. Every generator thread and every request
+ * thread that falls back to synchronous generation has its own {@link SudokuGenerator}, since
+ * a generator keeps per-puzzle search state. {@link #shutdown()} cancels the puzzles that the
+ * generator threads are still working on.
+ */
+public class PuzzlePool {
+
+    /** Default number of background generator threads. */
+    public static final int DEFAULT_THREADS = 1;
+
+    /** Default number of puzzles kept per difficulty. */
+    public static final int DEFAULT_CAPACITY = 32;
+
+    /** Default size at which a pool starts refilling. */
+    public static final int DEFAULT_LOW_WATERMARK = 8;
+
+    // A generator thread whose generations keep failing waits this long before retrying, doubling up to the max
+    private static final long MIN_FAILURE_BACKOFF_MS = 100;
+    private static final long MAX_FAILURE_BACKOFF_MS = 30000;
+
+    private final int capacity;
+    private final int lowWatermark;
+    private final Map<SudokuGenerator.Difficulty, Pool> pools = new EnumMap<>(SudokuGenerator.Difficulty.class);
+    private final Thread[] workers;
+    private final ThreadLocal<SudokuGenerator> fallbackGenerators = ThreadLocal.withInitial(SudokuGenerator::new);
+    private final CancellationToken shutdownToken = new CancellationToken();
+
+    // Guards every pool; also signalled when a pool starts refilling or on shutdown
+    private final Object lock = new Object();
+    private boolean stopped;
+
+    /**
+     * Creates a new PuzzlePool with the default thread count and watermarks, and starts filling it.
+     */
+    public PuzzlePool() {
+        this(DEFAULT_THREADS, DEFAULT_CAPACITY, DEFAULT_LOW_WATERMARK);
+    }
+
+    /**
+     * Creates a new PuzzlePool and starts filling it.
+     *
+     * @param threads The number of background generator threads
+     * @param capacity The number of puzzles kept per difficulty (the high watermark)
+     * @param lowWatermark The pool size at which refilling starts
+     */
+    public PuzzlePool(int threads, int capacity, int lowWatermark) {
+        if (threads < 1 || capacity < 1 || lowWatermark < 0 || lowWatermark >= capacity) {
+            throw new IllegalArgumentException("Pool needs at least one thread and 0 <= lowWatermark < capacity");
+        }
+        this.capacity = capacity;
+        this.lowWatermark = lowWatermark;
+        for (SudokuGenerator.Difficulty difficulty : SudokuGenerator.Difficulty.values()) {
+            pools.put(difficulty, new Pool());
+        }
+
+        this.workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(this::refillLoop, "sudoku-pool-" + (i + 1));
+            worker.setDaemon(true);
+            worker.setPriority(Thread.MIN_PRIORITY); // Request threads come first
+            workers[i] = worker;
+            worker.start();
+        }
+    }
+
+    /**
+     * Takes a puzzle of the given difficulty from its pool, or generates one on the calling
+     * thread if the pool is empty.
+     *
+     * @param difficulty The difficulty level
+     * @return A 9x9 array representing the puzzle (0 for empty cells)
+     */
+    public int[][] take(SudokuGenerator.Difficulty difficulty) {
+        try {
+            return take(difficulty, null);
+        } catch (SudokuTimeoutException e) {
+            throw new IllegalStateException("Generation without a token was stopped", e);
+        }
+    }
+
+    /**
+     * Takes a puzzle like {@link #take(SudokuGenerator.Difficulty)}, giving up on a synchronous
+     * generation once {@code token} is cancelled or its deadline passes.
+     *
+     * @param difficulty The difficulty level
+     * @param token The caller's cancellation token, or null
+     * @return A 9x9 array representing the puzzle (0 for empty cells)
+     * @throws SudokuTimeoutException if the pool was empty and the token stopped the generation
+     */
+    public int[][] take(SudokuGenerator.Difficulty difficulty, CancellationToken token) throws SudokuTimeoutException {
+        Pool pool = pools.get(difficulty);
+        CompactBoard puzzle;
+        synchronized (lock) {
+            puzzle = pool.puzzles.poll();
+            if (puzzle != null) {
+                pool.served++;
+            } else {
+                pool.fallbacks++;
+            }
+            if (!pool.refilling && pool.puzzles.size() <= lowWatermark) {
+                pool.refilling = true;
+                lock.notifyAll();
+            }
+        }
+        if (puzzle != null) {
+            return puzzle.toArray();
+        }
+        return fallbackGenerators.get().generateGraded(difficulty, token);
+    }
+
+    /**
+     * Stops the generator threads, cancelling the puzzles they are working on. Puzzles already
+     * pooled can still be taken, and empty pools fall back to synchronous generation.
+     */
+    public void shutdown() {
+        synchronized (lock) {
+            stopped = true;
+            lock.notifyAll();
+        }
+        shutdownToken.cancel();
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Body of each generator thread: repeatedly claims a slot in the neediest refilling pool,
+     * generates a puzzle for it outside the lock, and adds it. A failed generation is counted in
+     * the pool's failure count, and the thread backs off before claiming a slot again.
+     */
+    private void refillLoop() {
+        SudokuGenerator generator = new SudokuGenerator();
+        long backoffMs = 0;
+        while (true) {
+            SudokuGenerator.Difficulty difficulty;
+            try {
+                difficulty = awaitWork();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (difficulty == null) {
+                return; // Stopped
+            }
+
+            Pool pool = pools.get(difficulty);
+            long start = System.nanoTime();
+            CompactBoard puzzle = null;
+            boolean failed = false;
+            try {
+                puzzle = CompactBoard.fromArray(generator.generateGraded(difficulty, shutdownToken));
+            } catch (SudokuTimeoutException e) {
+                // Cancelled by shutdown; awaitWork returns null next
+            } catch (RuntimeException e) {
+                // Skip this puzzle; the reserved slot is released below and claimed again after the backoff
+                failed = true;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                synchronized (lock) {
+                    pool.inProgress--;
+                    if (puzzle != null) {
+                        pool.puzzles.add(puzzle);
+                        pool.generated++;
+                        pool.generationNanos += elapsed;
+                    }
+                    if (failed) {
+                        pool.failures++;
+                    }
+                    if (pool.puzzles.size() >= capacity) {
+                        pool.refilling = false;
+                    }
+                }
+            }
+
+            if (!failed) {
+                backoffMs = 0;
+                continue;
+            }
+            backoffMs = backoffMs == 0 ? MIN_FAILURE_BACKOFF_MS : Math.min(backoffMs * 2, MAX_FAILURE_BACKOFF_MS);
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                return; // Shut down
+            }
+        }
+    }
+
+    /**
+     * Waits until some pool needs a puzzle and reserves that puzzle for the calling thread.
+     *
+     * @return The difficulty to generate, or null once the pool has been shut down
+     */
+    private SudokuGenerator.Difficulty awaitWork() throws InterruptedException {
+        synchronized (lock) {
+            while (!stopped) {
+                SudokuGenerator.Difficulty neediest = null;
+                int fewest = capacity;
+                for (Map.Entry<SudokuGenerator.Difficulty, Pool> entry : pools.entrySet()) {
+                    Pool pool = entry.getValue();
+                    int pending = pool.puzzles.size() + pool.inProgress;
+                    if (pool.refilling && pending < fewest) {
+                        neediest = entry.getKey();
+                        fewest = pending;
+                    }
+                }
+                if (neediest != null) {
+                    pools.get(neediest).inProgress++;
+                    return neediest;
+                }
+                lock.wait();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Gets the number of puzzles waiting in a pool.
+     *
+     * @param difficulty The difficulty level
+     * @return The pool depth
+     */
+    public int getSize(SudokuGenerator.Difficulty difficulty) {
+        synchronized (lock) {
+            return pools.get(difficulty).puzzles.size();
+        }
+    }
+
+    /**
+     * Gets the number of puzzles generated in the background for a pool.
+     *
+     * @param difficulty The difficulty level
+     * @return The refill count
+     */
+    public long getGeneratedCount(SudokuGenerator.Difficulty difficulty) {
+        synchronized (lock) {
+            return pools.get(difficulty).generated;
+        }
+    }
+
+    /**
+     * Gets the number of requests served from a pool.
+     *
+     * @param difficulty The difficulty level
+     * @return The served count
+     */
+    public long getServedCount(SudokuGenerator.Difficulty difficulty) {
+        synchronized (lock) {
+            return pools.get(difficulty).served;
+        }
+    }
+
+    /**
+     * Gets the number of requests that found a pool empty and generated synchronously.
+     *
+     * @param difficulty The difficulty level
+     * @return The fallback count
+     */
+    public long getFallbackCount(SudokuGenerator.Difficulty difficulty) {
+        synchronized (lock) {
+            return pools.get(difficulty).fallbacks;
+        }
+    }
+
+    /**
+     * Gets the number of background generations for a pool that failed.
+     *
+     * @param difficulty The difficulty level
+     * @return The failure count
+     */
+    public long getFailureCount(SudokuGenerator.Difficulty difficulty) {
+        synchronized (lock) {
+            return pools.get(difficulty).failures;
+        }
+    }
+
+    /**
+     * Gets the rate at which one generator thread refills a pool while it is refilling.
+     *
+     * @param difficulty The difficulty level
+     * @return Puzzles generated per second of generation time, or 0 before the first one
+     */
+    public double getRefillRate(SudokuGenerator.Difficulty difficulty) {
+        synchronized (lock) {
+            Pool pool = pools.get(difficulty);
+            return pool.generationNanos > 0 ? pool.generated * 1e9 / pool.generationNanos : 0;
+        }
+    }
+
+    /**
+     * Gets the number of puzzles kept per difficulty.
+     *
+     * @return The capacity (high watermark)
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the pool size at which refilling starts.
+     *
+     * @return The low watermark
+     */
+    public int getLowWatermark() {
+        return lowWatermark;
+    }
+
+    /**
+     * Gets the number of background generator threads.
+     *
+     * @return The thread count
+     */
+    public int getThreadCount() {
+        return workers.length;
+    }
+
+    /**
+     * The puzzles and counters of one difficulty. Guarded by {@link #lock}.
+     */
+    private static class Pool {
+        final ArrayDeque<CompactBoard> puzzles = new ArrayDeque<>();
+        boolean refilling = true; // Fill every pool at startup
+        int inProgress;
+        long generated;
+        long generationNanos;
+        long served;
+        long fallbacks;
+        long failures;
+    }
+}
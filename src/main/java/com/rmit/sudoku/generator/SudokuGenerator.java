@@ -1,7 +1,8 @@
 package com.rmit.sudoku.generator;
 
 import com.rmit.sudoku.solver.BacktrackingSudokuSolver;
-import com.rmit.sudoku.solver.SudokuSolver;
+import com.rmit.sudoku.solver.CancellationToken;
+import com.rmit.sudoku.solver.SudokuCancelledException;
 import com.rmit.sudoku.solver.SudokuTimeoutException;
 import com.rmit.sudoku.validator.SudokuValidator;
 
@@ -12,14 +13,25 @@ import java.util.Random;
 
 /**
  * Class for generating Sudoku puzzles with varying difficulty levels.
+ * <p>
+ * Every generate method has a variant that takes a {@link CancellationToken}, which the
+ * uniqueness checks poll while clues are dug out, so that a generation can be cancelled from
+ * another thread or held to a deadline.
  */
 public class SudokuGenerator {
 
     private static final int GRID_SIZE = 9;
     private static final int BOX_SIZE = 3;
-    private final Random random;
-    private final SudokuSolver solver;
 
+    /** Number of puzzles dug before {@link #generateGraded(Difficulty)} settles for the closest level. */
+    public static final int MAX_GRADED_ATTEMPTS = 50;
+
+    private final Random random;
+    private final GridSource gridSource;
+    private final IncrementalUniquenessChecker checker;
+    private final DifficultyGrader grader = new DifficultyGrader();
+    private final TransformedGridSource transformedGrids = new TransformedGridSource();
+    private final int[] gridCells = new int[GRID_SIZE * GRID_SIZE];
 
     /**
      * Difficulty levels for Sudoku puzzles.
@@ -47,6 +59,16 @@ public class SudokuGenerator {
         }
     }
 
+    /**
+     * Ways of producing the solved grid that a puzzle is dug out of.
+     */
+    public enum GridSource {
+        /** Randomly transform one of a set of seed grids; allocation-free and well under a microsecond. */
+        TRANSFORM,
+        /** Fill the diagonal boxes at random and complete the grid by randomized backtracking. */
+        BACKTRACKING
+    }
+
     /**
      * Creates a new SudokuGenerator with a random seed.
      */
@@ -60,24 +82,136 @@ public class SudokuGenerator {
      * @param seed The random seed
      */
     public SudokuGenerator(long seed) {
+        this(seed, GridSource.TRANSFORM);
+    }
+
+    /**
+     * Creates a new SudokuGenerator with a specific seed and solved-grid source.
+     *
+     * @param seed The random seed
+     * @param gridSource How solved grids are produced
+     */
+    public SudokuGenerator(long seed, GridSource gridSource) {
         this.random = new Random(seed);
-        this.solver = new BacktrackingSudokuSolver(false); // Disable metrics printing
+        this.gridSource = gridSource;
+        this.checker = new IncrementalUniquenessChecker();
     }
 
     /**
-     * Generates a new Sudoku puzzle with the specified difficulty.
+     * Generates a new Sudoku puzzle with the specified difficulty, measured by clue count.
      *
      * @param difficulty The difficulty level
      * @return A 9x9 array representing the puzzle (0 for empty cells)
      */
     public int[][] generate(Difficulty difficulty) {
-        // Generate a fully solved puzzle
-        int[][] solvedPuzzle = generateSolvedPuzzle();
+        return uncancellable(() -> generate(difficulty, (CancellationToken) null));
+    }
 
-        // Create a copy to work with
-        int[][] puzzle = new int[GRID_SIZE][GRID_SIZE];
-        for (int i = 0; i < GRID_SIZE; i++) {
-            System.arraycopy(solvedPuzzle[i], 0, puzzle[i], 0, GRID_SIZE);
+    /**
+     * Generates a new Sudoku puzzle like {@link #generate(Difficulty)}, giving up once
+     * {@code token} is cancelled or its deadline passes.
+     *
+     * @param difficulty The difficulty level
+     * @param token The caller's cancellation token, or null
+     * @return A 9x9 array representing the puzzle (0 for empty cells)
+     * @throws SudokuCancelledException if the token was cancelled before the puzzle was finished
+     * @throws SudokuTimeoutException if the token's deadline passed before the puzzle was finished
+     */
+    public int[][] generate(Difficulty difficulty, CancellationToken token) throws SudokuTimeoutException {
+        return dig(difficulty, false, token);
+    }
+
+    /**
+     * Generates a new Sudoku puzzle whose {@link DifficultyGrader graded} level matches the
+     * specified difficulty. Clues are dug out towards the difficulty's clue count, but removals
+     * that would grade the puzzle harder than requested are undone, and digging continues past
+     * the clue count while the puzzle grades easier. Puzzles that still miss the level are
+     * discarded; after {@link #MAX_GRADED_ATTEMPTS} misses the closest one is returned.
+     *
+     * @param difficulty The difficulty level
+     * @return A 9x9 array representing the puzzle (0 for empty cells)
+     */
+    public int[][] generateGraded(Difficulty difficulty) {
+        return uncancellable(() -> generateGraded(difficulty, (CancellationToken) null));
+    }
+
+    /**
+     * Generates a new graded Sudoku puzzle like {@link #generateGraded(Difficulty)}, giving up
+     * once {@code token} is cancelled or its deadline passes.
+     *
+     * @param difficulty The difficulty level
+     * @param token The caller's cancellation token, or null
+     * @return A 9x9 array representing the puzzle (0 for empty cells)
+     * @throws SudokuCancelledException if the token was cancelled before the puzzle was finished
+     * @throws SudokuTimeoutException if the token's deadline passed before the puzzle was finished
+     */
+    public int[][] generateGraded(Difficulty difficulty, CancellationToken token) throws SudokuTimeoutException {
+        int[][] closest = null;
+        int closestDistance = Integer.MAX_VALUE;
+        for (int attempt = 0; attempt < MAX_GRADED_ATTEMPTS; attempt++) {
+            int[][] puzzle = dig(difficulty, true, token);
+            int distance = Math.abs(grader.grade(puzzle).getLevel().ordinal() - difficulty.ordinal());
+            if (distance == 0) {
+                return puzzle;
+            }
+            if (distance < closestDistance) {
+                closest = puzzle;
+                closestDistance = distance;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Generates a new graded Sudoku puzzle from a seed, as {@link #generate(Difficulty, long)}
+     * does for clue-count puzzles.
+     *
+     * @param difficulty The difficulty level
+     * @param seed The random seed for this puzzle
+     * @return A 9x9 array representing the puzzle (0 for empty cells)
+     */
+    public int[][] generateGraded(Difficulty difficulty, long seed) {
+        random.setSeed(seed);
+        return generateGraded(difficulty);
+    }
+
+    /**
+     * Generates a new graded Sudoku puzzle from a seed like {@link #generateGraded(Difficulty, long)},
+     * giving up once {@code token} is cancelled or its deadline passes.
+     *
+     * @param difficulty The difficulty level
+     * @param seed The random seed for this puzzle
+     * @param token The caller's cancellation token, or null
+     * @return A 9x9 array representing the puzzle (0 for empty cells)
+     * @throws SudokuCancelledException if the token was cancelled before the puzzle was finished
+     * @throws SudokuTimeoutException if the token's deadline passed before the puzzle was finished
+     */
+    public int[][] generateGraded(Difficulty difficulty, long seed, CancellationToken token)
+            throws SudokuTimeoutException {
+        random.setSeed(seed);
+        return generateGraded(difficulty, token);
+    }
+
+    /**
+     * Digs a puzzle out of a new solved grid.
+     *
+     * @param difficulty The difficulty level
+     * @param graded Whether to steer the dig by graded level as well as clue count
+     * @param token The caller's cancellation token, or null
+     * @return A 9x9 array representing the puzzle (0 for empty cells)
+     * @throws SudokuTimeoutException if the token was cancelled or expired during the dig
+     */
+    private int[][] dig(Difficulty difficulty, boolean graded, CancellationToken token) throws SudokuTimeoutException {
+        // Generate a fully solved puzzle to work with
+        int[][] puzzle;
+        if (gridSource == GridSource.TRANSFORM) {
+            transformedGrids.fill(random, gridCells);
+            puzzle = new int[GRID_SIZE][GRID_SIZE];
+            for (int i = 0; i < GRID_SIZE; i++) {
+                System.arraycopy(gridCells, i * GRID_SIZE, puzzle[i], 0, GRID_SIZE);
+            }
+        } else {
+            puzzle = generateSolvedPuzzle();
         }
 
         // Determine how many cells to keep filled
@@ -93,29 +227,55 @@ public class SudokuGenerator {
         // Shuffle the positions
         Collections.shuffle(positions, random);
 
-        // Keep only the specified number of cells
+        // Keep only the specified number of cells, starting the checker from the solved grid
+        checker.load(puzzle);
         int cellsToRemove = GRID_SIZE * GRID_SIZE - cellsToKeep;
-        for (int i = 0; i < cellsToRemove; i++) {
+        Difficulty level = Difficulty.EASY;
+        for (int i = 0; i < positions.size(); i++) {
+            // A graded dig goes on past the clue count until the puzzle is hard enough
+            if (i >= cellsToRemove && (!graded || level == difficulty)) {
+                break;
+            }
             int position = positions.get(i);
             int row = position / GRID_SIZE;
             int col = position % GRID_SIZE;
+            int value = puzzle[row][col];
 
-            // Store the original value
-            int originalValue = puzzle[row][col];
-
-            // Try removing the cell
+            // Remove the cell only if the puzzle still has a unique solution without it
+            if (!tryRemoveCell(row, col, token)) {
+                continue;
+            }
             puzzle[row][col] = 0;
 
-            // Check if the puzzle still has a unique solution
-            if (!hasUniqueSolution(puzzle)) {
-                // If not, restore the value
-                puzzle[row][col] = originalValue;
+            if (graded) {
+                Difficulty removedLevel = grader.grade(puzzle).getLevel();
+                if (removedLevel.compareTo(difficulty) > 0) {
+                    // Too hard without this clue; put it back
+                    checker.restoreClue(row, col, value);
+                    puzzle[row][col] = value;
+                } else {
+                    level = removedLevel;
+                }
             }
         }
 
         return puzzle;
     }
 
+    /**
+     * Generates a new Sudoku puzzle from a seed. The puzzle depends only on the seed and the
+     * difficulty, not on what this generator produced before, and the generator continues from
+     * the seed afterwards.
+     *
+     * @param difficulty The difficulty level
+     * @param seed The random seed for this puzzle
+     * @return A 9x9 array representing the puzzle (0 for empty cells)
+     */
+    public int[][] generate(Difficulty difficulty, long seed) {
+        random.setSeed(seed);
+        return generate(difficulty);
+    }
+
     /**
      * Generates a fully solved Sudoku puzzle.
      *
@@ -192,93 +352,53 @@ public class SudokuGenerator {
     }
 
     /**
-     * Checks if a puzzle has a unique solution.
+     * Removes a cell from the checker's puzzle if the puzzle stays unique without it.
      *
-     * @param puzzle The puzzle to check
-     * @return true if the puzzle has a unique solution, false otherwise
+     * @param row The row index
+     * @param col The column index
+     * @param token The caller's cancellation token, or null
+     * @return true if the cell was removed, false if it was kept
+     * @throws SudokuTimeoutException if the caller's token was cancelled or expired
      */
-    private boolean hasUniqueSolution(int[][] puzzle) {
-        // Create a copy of the puzzle
-        int[][] puzzleCopy = new int[GRID_SIZE][GRID_SIZE];
-        for (int i = 0; i < GRID_SIZE; i++) {
-            System.arraycopy(puzzle[i], 0, puzzleCopy[i], 0, GRID_SIZE);
-        }
-
+    private boolean tryRemoveCell(int row, int col, CancellationToken token) throws SudokuTimeoutException {
         try {
-            // Try to solve the puzzle
-            int[][] solution = solver.solve(puzzleCopy);
-
-            // If no solution exists, return false
-            if (solution == null) {
-                return false;
-            }
-
-            // Check if there's a second solution
-            return !hasSecondSolution(puzzle, solution);
+            return checker.tryRemoveClue(row, col, token);
         } catch (SudokuTimeoutException e) {
-            // If solving times out, assume it's too difficult
+            if (token != null && token.isStopRequested()) {
+                throw e; // The caller gave up on the whole puzzle
+            }
+            // If only this check timed out, assume it's too difficult and keep the cell
             return false;
         }
     }
 
     /**
-     * Checks if a puzzle has a second solution different from the given one.
-     *
-     * @param puzzle The puzzle to check
-     * @param firstSolution The first solution
-     * @return true if a second solution exists, false otherwise
+     * Runs a generation without a caller token. Such a generation is never stopped from outside,
+     * and a check that times out keeps its cell instead of throwing.
      */
-    private boolean hasSecondSolution(int[][] puzzle, int[][] firstSolution) {
-        // This is a simplified check that doesn't guarantee finding all solutions
-        // For a complete check, a full backtracking search would be needed
-
-        // Create a copy of the puzzle
-        int[][] puzzleCopy = new int[GRID_SIZE][GRID_SIZE];
-        for (int i = 0; i < GRID_SIZE; i++) {
-            System.arraycopy(puzzle[i], 0, puzzleCopy[i], 0, GRID_SIZE);
-        }
-
-        // Find an empty cell
-        int emptyRow = -1;
-        int emptyCol = -1;
-        outerLoop:
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                if (puzzleCopy[row][col] == 0) {
-                    emptyRow = row;
-                    emptyCol = col;
-                    break outerLoop;
-                }
-            }
-        }
-
-        // If no empty cell, the puzzle is already solved
-        if (emptyRow == -1) {
-            return false;
+    private static int[][] uncancellable(Generation generation) {
+        try {
+            return generation.run();
+        } catch (SudokuTimeoutException e) {
+            throw new IllegalStateException("Generation without a token was stopped", e);
         }
+    }
 
-        // Try a different value than the one in the first solution
-        int valueInFirstSolution = firstSolution[emptyRow][emptyCol];
-
-        for (int num = 1; num <= GRID_SIZE; num++) {
-            if (num != valueInFirstSolution && SudokuValidator.isValidPlacement(puzzleCopy, num, emptyRow, emptyCol)) {
-                puzzleCopy[emptyRow][emptyCol] = num;
-
-                try {
-                    // Try to solve with this different value
-                    if (solver.solve(puzzleCopy) != null) {
-                        return true; // Found a second solution
-                    }
-                } catch (SudokuTimeoutException e) {
-                    // If solving times out, continue with the next number
-                }
-
-                // Reset for the next attempt
-                puzzleCopy[emptyRow][emptyCol] = 0;
-            }
-        }
+    /**
+     * A generation that may be stopped through a token.
+     */
+    @FunctionalInterface
+    private interface Generation {
+        int[][] run() throws SudokuTimeoutException;
+    }
 
-        return false; // No second solution found
+    /**
+     * Gets the source of the solved grids this generator digs puzzles out of.
+     *
+     * @return The grid source
+     */
+    public GridSource getGridSource() {
+        return gridSource;
     }
 
     /**
@@ -0,0 +1,125 @@
+package com.rmit.sudoku.generator;
+
+import java.util.Random;
+
+/**
+ * Source of random solved grids that applies a random validity-preserving transform to one of a
+ * fixed set of seed grids, instead of searching for a grid from scratch.
+ * <p>
+ * Each grid picks a seed grid, an optional transposition, a band order and a row order within each
+ * band, a stack order and a column order within each stack, and a digit permutation. These are the
+ * transforms of {@link com.rmit.sudoku.symmetry.BoardTransform}; every one of them maps a valid
+ * grid to a valid grid, and together they reach about 1.2 x 10^12 grids from each seed.
+ * <p>
+ * The transform is built in preallocated scratch arrays and written straight into the caller's
+ * array, so producing a grid allocates nothing. Instances are not thread-safe.
+ */
+public class TransformedGridSource {
+
+    private static final int GRID_SIZE = 9;
+    private static final int BOX_SIZE = 3;
+    private static final int CELL_COUNT = GRID_SIZE * GRID_SIZE;
+
+    /** Unrelated solved grids, one per line, read row by row. */
+    private static final String[] SEED_GRIDS = {
+            "648132597172954638935876421593487162714263985826519743481625379267391854359748216",
+            "248197563679325418351486297762934185493851726815762934187243659534619872926578341",
+            "156283749937456281842179635725318964319642857684597312563921478271834596498765123",
+            "527138649419562783836947512253419867681375924974286135398654271162793458745821396",
+            "432765981516298374789413625145627893368549217297381456674852139923174568851936742",
+            "473816952652937481198425376714568293369742815285193764521389647837654129946271538",
+            "984162537261753498753894612475218369316479285892635174527386941139547826648921753",
+            "812675394374289615956413287785362149693541872421897563139758426248936751567124938",
+            "752698413649321758831475962125934687497586231368712549214867395573149826986253174",
+            "125487936697513248843962157762398514519246783438175692981624375254731869376859421",
+            "394618572257439816681257943963571428518924637742863159879142365426395781135786294",
+            "189645723523917648476382159741563892958724316632198574295831467367459281814276935",
+            "698143257541627893732958164987516432364279581215834976876491325423785619159362748",
+            "431859762295176834786342591913268457857431629642795318529684173364917285178523946",
+            "682791543974253861135684927497368152561472389823915674746539218219846735358127496",
+            "168475239425963178937812465593746821671528943284391657352689714719254386846137592"
+    };
+
+    private static final int[][] SEEDS = new int[SEED_GRIDS.length][CELL_COUNT];
+
+    static {
+        for (int s = 0; s < SEED_GRIDS.length; s++) {
+            for (int cell = 0; cell < CELL_COUNT; cell++) {
+                SEEDS[s][cell] = SEED_GRIDS[s].charAt(cell) - '0';
+            }
+        }
+    }
+
+    // Scratch for the transform of the grid being produced
+    private final int[] rowOrder = new int[GRID_SIZE];
+    private final int[] colOrder = new int[GRID_SIZE];
+    private final int[] digitMap = new int[GRID_SIZE + 1];
+    private final int[] groupOrder = new int[BOX_SIZE];
+
+    /**
+     * Writes a random solved grid into {@code cells}.
+     *
+     * @param random The source of randomness
+     * @param cells An array of at least 81 cells, filled row by row with digits 1-9
+     */
+    public void fill(Random random, int[] cells) {
+        int[] seed = SEEDS[random.nextInt(SEEDS.length)];
+        boolean transpose = random.nextBoolean();
+        shuffleLines(random, rowOrder);
+        shuffleLines(random, colOrder);
+        for (int digit = 1; digit <= GRID_SIZE; digit++) {
+            digitMap[digit] = digit;
+        }
+        shuffle(random, digitMap, 1, GRID_SIZE);
+
+        for (int row = 0; row < GRID_SIZE; row++) {
+            int base = row * GRID_SIZE;
+            int sourceRow = rowOrder[row];
+            for (int col = 0; col < GRID_SIZE; col++) {
+                int source = transpose
+                        ? colOrder[col] * GRID_SIZE + sourceRow
+                        : sourceRow * GRID_SIZE + colOrder[col];
+                cells[base + col] = digitMap[seed[source]];
+            }
+        }
+    }
+
+    /**
+     * Fills {@code order} with a random permutation of 0-8 that keeps each group of three lines
+     * (a band or a stack) together: the groups are shuffled, then the lines within each group.
+     */
+    private void shuffleLines(Random random, int[] order) {
+        for (int i = 0; i < BOX_SIZE; i++) {
+            groupOrder[i] = i;
+        }
+        shuffle(random, groupOrder, 0, BOX_SIZE);
+        for (int group = 0; group < BOX_SIZE; group++) {
+            int start = group * BOX_SIZE;
+            for (int i = 0; i < BOX_SIZE; i++) {
+                order[start + i] = groupOrder[group] * BOX_SIZE + i;
+            }
+            shuffle(random, order, start, BOX_SIZE);
+        }
+    }
+
+    /**
+     * Fisher-Yates shuffle of {@code length} elements starting at {@code from}.
+     */
+    private static void shuffle(Random random, int[] values, int from, int length) {
+        for (int i = length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[from + i];
+            values[from + i] = values[from + j];
+            values[from + j] = tmp;
+        }
+    }
+
+    /**
+     * Gets the number of seed grids.
+     *
+     * @return The seed grid count
+     */
+    public static int getSeedCount() {
+        return SEEDS.length;
+    }
+}
@@ -1,18 +1,77 @@
 package com.rmit.sudoku.metrics;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Class for tracking and reporting Sudoku solver performance metrics.
+ * <p>
+ * How much is tracked depends on the {@link Mode}. Time is always measured with
+ * {@link System#nanoTime()}, since solvers also use it for their time limit.
+ * <p>
+ * Memory is measured as the bytes allocated by the threads doing the solve, read from
+ * {@link ThreadAllocationCounter}, so concurrent requests and garbage collection do not
+ * show up in it. Allocations are counted only while accounting is resumed on the current
+ * thread, and are attributed to the current phase (see {@link #startPhase(String)}). Where
+ * per-thread counts are not supported, the growth of the used heap is reported instead.
  */
 public class SudokuMetrics {
     
+    /**
+     * How much a solver tracks while it searches.
+     */
+    public enum Mode {
+        /** Only the solve time; the search does no bookkeeping at all. */
+        OFF,
+        /** Time, operation count and recursion depth, counted in plain fields and recorded once per solve. */
+        COUNTERS,
+        /** Everything, including memory use. */
+        FULL
+    }
+    
+    /** Phase that allocations are attributed to until a solver starts another one. */
+    public static final String DEFAULT_PHASE = "solve";
+    
+    // Recursion levels between peak memory samples
+    private static final int MEMORY_SAMPLE_INTERVAL = 1000;
+    
+    private Mode mode;
     private long operationCount;
-    private long startTime;
-    private long endTime;
+    private long startNanos;
+    private long endNanos;
     private int currentRecursionDepth;
     private int maxRecursionDepth;
     private long memoryBefore;
     private long memoryAfter;
     private long peakMemoryUsage;
+    private int cellsFilledByLogic;
+    private int cellsFilledBySearch;
+    private long memorySamples;
+    
+    // Per-thread allocation accounting, used in FULL mode where supported
+    private boolean countAllocations;
+    private long allocationMark = -1; // thread's allocated bytes when accounting resumed, -1 while paused
+    private long allocatedBytes;
+    private String phase = DEFAULT_PHASE;
+    private final Map<String, Long> phaseAllocations = new LinkedHashMap<>();
+    
+    /**
+     * Creates a new SudokuMetrics that tracks everything ({@link Mode#FULL}).
+     */
+    public SudokuMetrics() {
+        this(Mode.FULL);
+    }
+    
+    /**
+     * Creates a new SudokuMetrics with the given mode.
+     * 
+     * @param mode How much to track
+     */
+    public SudokuMetrics(Mode mode) {
+        this.mode = mode;
+    }
     
     /**
      * Initializes and starts tracking metrics.
@@ -21,20 +80,80 @@ public class SudokuMetrics {
         operationCount = 0;
         currentRecursionDepth = 0;
         maxRecursionDepth = 0;
-        startTime = System.currentTimeMillis();
+        cellsFilledByLogic = 0;
+        cellsFilledBySearch = 0;
+        memoryBefore = 0;
+        memoryAfter = 0;
+        peakMemoryUsage = 0;
+        memorySamples = 0;
+        allocatedBytes = 0;
+        allocationMark = -1;
+        phase = DEFAULT_PHASE;
+        phaseAllocations.clear();
+        countAllocations = mode == Mode.FULL && ThreadAllocationCounter.isSupported();
         
         // Measure memory before solving
-        System.gc(); // Request garbage collection to get more accurate memory measurement
-        memoryBefore = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
-        peakMemoryUsage = 0;
+        if (isSamplingHeap()) {
+            System.gc(); // Request garbage collection to get more accurate memory measurement
+            memoryBefore = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+        }
+        startNanos = System.nanoTime();
+        resumeAllocationTracking();
     }
     
     /**
      * Stops tracking metrics.
      */
     public void stopTracking() {
-        endTime = System.currentTimeMillis();
-        memoryAfter = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+        endNanos = System.nanoTime();
+        pauseAllocationTracking();
+        if (isSamplingHeap()) {
+            memoryAfter = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+        }
+    }
+    
+    /**
+     * Starts counting the current thread's allocations towards this object. Tracking resumes
+     * automatically in {@link #startTracking()}; forked metrics must resume on the thread that
+     * runs the subtask.
+     */
+    public void resumeAllocationTracking() {
+        if (countAllocations && allocationMark < 0) {
+            allocationMark = ThreadAllocationCounter.getAllocatedBytes();
+        }
+    }
+    
+    /**
+     * Stops counting the current thread's allocations, e.g. before the thread waits for
+     * subtasks that count their own, or hands the work to another solver.
+     */
+    public void pauseAllocationTracking() {
+        if (countAllocations && allocationMark >= 0) {
+            addAllocation(ThreadAllocationCounter.getAllocatedBytes() - allocationMark);
+            allocationMark = -1;
+        }
+    }
+    
+    /**
+     * Attributes the allocations from now on to the given phase, e.g. "setup" or "search".
+     * Until a solver starts a phase, allocations go to {@link #DEFAULT_PHASE}.
+     * 
+     * @param name The phase name
+     */
+    public void startPhase(String name) {
+        if (countAllocations && allocationMark >= 0) {
+            long now = ThreadAllocationCounter.getAllocatedBytes();
+            if (now > allocationMark) {
+                addAllocation(now - allocationMark);
+                allocationMark = now;
+            }
+        }
+        phase = name;
+    }
+    
+    private void addAllocation(long bytes) {
+        allocatedBytes += bytes;
+        phaseAllocations.merge(phase, bytes, Long::sum);
     }
     
     /**
@@ -44,6 +163,88 @@ public class SudokuMetrics {
         operationCount++;
     }
     
+    /**
+     * Adds to the operation count.
+     * 
+     * @param operations The number of operations to add
+     */
+    public void addOperationCount(long operations) {
+        operationCount += operations;
+    }
+    
+    /**
+     * Creates a metrics object for a subtask of the current solve, e.g. one branch of a
+     * parallel search. It shares this object's start time, memory baseline and phase but has
+     * its own counters, so each thread can update it without synchronisation. Its allocation
+     * accounting starts paused: the subtask calls {@link #resumeAllocationTracking()} on its
+     * own thread and pauses it again before waiting for other tasks or finishing. Combine the
+     * results with {@link #merge(SudokuMetrics)} once the subtask has finished.
+     * 
+     * @return A new metrics object for the subtask
+     */
+    public SudokuMetrics fork() {
+        SudokuMetrics child = new SudokuMetrics(mode);
+        child.startNanos = startNanos;
+        child.memoryBefore = memoryBefore;
+        child.countAllocations = countAllocations;
+        child.phase = phase;
+        child.currentRecursionDepth = currentRecursionDepth;
+        child.maxRecursionDepth = currentRecursionDepth;
+        return child;
+    }
+    
+    /**
+     * Creates a snapshot of these metrics that later solves do not change.
+     * 
+     * @return A copy of this metrics object
+     */
+    public SudokuMetrics copy() {
+        SudokuMetrics copy = new SudokuMetrics(mode);
+        copy.operationCount = operationCount;
+        copy.startNanos = startNanos;
+        copy.endNanos = endNanos;
+        copy.currentRecursionDepth = currentRecursionDepth;
+        copy.maxRecursionDepth = maxRecursionDepth;
+        copy.memoryBefore = memoryBefore;
+        copy.memoryAfter = memoryAfter;
+        copy.peakMemoryUsage = peakMemoryUsage;
+        copy.cellsFilledByLogic = cellsFilledByLogic;
+        copy.cellsFilledBySearch = cellsFilledBySearch;
+        copy.memorySamples = memorySamples;
+        copy.countAllocations = countAllocations;
+        copy.allocatedBytes = allocatedBytes;
+        copy.phase = phase;
+        copy.phaseAllocations.putAll(phaseAllocations);
+        return copy;
+    }
+    
+    /**
+     * Adds the operation count, recursion depth and allocations of another metrics object,
+     * e.g. one tracked by a solver this one delegated to.
+     * 
+     * @param other The metrics to merge into this one
+     */
+    public void merge(SudokuMetrics other) {
+        operationCount += other.operationCount;
+        maxRecursionDepth = Math.max(maxRecursionDepth, other.maxRecursionDepth);
+        peakMemoryUsage = Math.max(peakMemoryUsage, other.peakMemoryUsage);
+        if (countAllocations && other.countAllocations) {
+            allocatedBytes += other.allocatedBytes;
+            other.phaseAllocations.forEach((name, bytes) -> phaseAllocations.merge(name, bytes, Long::sum));
+        }
+    }
+    
+    /**
+     * Records how many empty cells were filled by constraint propagation and by search.
+     * 
+     * @param byLogic Cells filled by logical deduction
+     * @param bySearch Cells filled by search (guessing and backtracking)
+     */
+    public void setCellsFilled(int byLogic, int bySearch) {
+        cellsFilledByLogic = byLogic;
+        cellsFilledBySearch = bySearch;
+    }
+    
     /**
      * Increments the recursion depth and updates the maximum.
      */
@@ -62,10 +263,21 @@ public class SudokuMetrics {
     }
     
     /**
-     * Updates the peak memory usage.
+     * Records the deepest level a search reached below the current recursion depth, for
+     * searches that track their depth in a local counter instead of incrementing it here.
+     * 
+     * @param depth The number of nested levels the search reached
+     */
+    public void recordNestedDepth(int depth) {
+        maxRecursionDepth = Math.max(maxRecursionDepth, currentRecursionDepth + depth);
+    }
+    
+    /**
+     * Updates the peak memory usage, sampling it once every {@link #MEMORY_SAMPLE_INTERVAL}
+     * calls. Does nothing unless {@link #isSamplingHeap()}.
      */
     public void updatePeakMemoryUsage() {
-        if (operationCount % 1000 == 0) {
+        if (isSamplingHeap() && memorySamples++ % MEMORY_SAMPLE_INTERVAL == 0) {
             long currentMemory = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
             long memoryUsed = currentMemory - memoryBefore;
             if (memoryUsed > peakMemoryUsage) {
@@ -82,9 +294,17 @@ public class SudokuMetrics {
         System.out.println("Time Complexity:");
         System.out.println("  Operations performed: " + operationCount);
         System.out.println("  Time taken: " + getTimeTaken() + " milliseconds");
+        if (cellsFilledByLogic + cellsFilledBySearch > 0) {
+            System.out.println("  Cells filled by logic: " + cellsFilledByLogic);
+            System.out.println("  Cells filled by search: " + cellsFilledBySearch);
+        }
         System.out.println("\nSpace Complexity:");
         System.out.println("  Maximum recursion depth: " + maxRecursionDepth);
         System.out.println("  Memory used: " + getFormattedMemoryUsed());
+        if (countAllocations && phaseAllocations.size() > 1) {
+            phaseAllocations.forEach((name, bytes) ->
+                    System.out.println("    " + name + ": " + formatMemorySize(bytes)));
+        }
         System.out.println("  Theoretical space complexity: O(1) - constant for 9x9 grid (81 cells)");
     }
     
@@ -103,7 +323,16 @@ public class SudokuMetrics {
      * @return The time in milliseconds
      */
     public long getTimeTaken() {
-        return endTime - startTime;
+        return TimeUnit.NANOSECONDS.toMillis(endNanos - startNanos);
+    }
+    
+    /**
+     * Gets the time taken in nanoseconds.
+     * 
+     * @return The time in nanoseconds
+     */
+    public long getTimeTakenNanos() {
+        return endNanos - startNanos;
     }
     
     /**
@@ -116,21 +345,62 @@ public class SudokuMetrics {
     }
     
     /**
-     * Gets the memory used in bytes.
+     * Gets the number of empty cells filled by constraint propagation.
+     * 
+     * @return Cells filled by logic
+     */
+    public int getCellsFilledByLogic() {
+        return cellsFilledByLogic;
+    }
+    
+    /**
+     * Gets the number of empty cells filled by search.
+     * 
+     * @return Cells filled by search
+     */
+    public int getCellsFilledBySearch() {
+        return cellsFilledBySearch;
+    }
+    
+    /**
+     * Gets the memory used in bytes: the bytes allocated by the solve where per-thread counts
+     * are supported, otherwise the growth of the used heap.
      * 
      * @return Memory used in bytes
      */
     public long getMemoryUsed() {
+        if (countAllocations) {
+            return allocatedBytes;
+        }
         return Math.max(memoryAfter - memoryBefore, peakMemoryUsage);
     }
     
+    /**
+     * Gets the bytes allocated by the threads of the last solve, summed over all of them.
+     * 
+     * @return The allocated bytes, or -1 if they were not measured
+     */
+    public long getAllocatedBytes() {
+        return countAllocations ? allocatedBytes : -1;
+    }
+    
+    /**
+     * Gets the bytes allocated in each phase of the last solve, in the order the phases
+     * started. The values add up to {@link #getAllocatedBytes()}.
+     * 
+     * @return Allocated bytes keyed by phase name, empty if allocations were not measured
+     */
+    public Map<String, Long> getAllocatedBytesByPhase() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(phaseAllocations));
+    }
+    
     /**
      * Gets the formatted memory usage string.
      * 
-     * @return Formatted memory usage
+     * @return Formatted memory usage, or "not measured" unless the mode is {@link Mode#FULL}
      */
     public String getFormattedMemoryUsed() {
-        return formatMemorySize(getMemoryUsed());
+        return mode == Mode.FULL ? formatMemorySize(getMemoryUsed()) : "not measured";
     }
     
     /**
@@ -156,6 +426,43 @@ public class SudokuMetrics {
      * @return true if the time limit has been exceeded, false otherwise
      */
     public boolean hasExceededTimeLimit(long timeoutMillis) {
-        return System.currentTimeMillis() - startTime > timeoutMillis;
+        return System.nanoTime() - startNanos > TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+    
+    /**
+     * Gets how much is tracked.
+     * 
+     * @return The mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+    
+    /**
+     * Sets how much is tracked from the next solve on.
+     * 
+     * @param mode The mode
+     */
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+    
+    /**
+     * Checks whether searches should count operations and recursion depth.
+     * 
+     * @return true unless the mode is {@link Mode#OFF}
+     */
+    public boolean isCounting() {
+        return mode != Mode.OFF;
+    }
+    
+    /**
+     * Checks whether memory is measured by sampling the used heap, which happens in
+     * {@link Mode#FULL} when per-thread allocation counts are not supported.
+     * 
+     * @return true if searches should call {@link #updatePeakMemoryUsage()}
+     */
+    public boolean isSamplingHeap() {
+        return mode == Mode.FULL && !countAllocations;
     }
 }
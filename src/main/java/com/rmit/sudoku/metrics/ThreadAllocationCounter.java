@@ -0,0 +1,57 @@
+package com.rmit.sudoku.metrics;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Reads how many bytes the current thread has allocated on the heap, using the HotSpot
+ * extension of {@link java.lang.management.ThreadMXBean}.
+ * <p>
+ * Unlike the used heap, the count only grows with the thread's own allocations, so it is not
+ * disturbed by other threads or by garbage collection. JVMs without the extension, or with
+ * allocation counting disabled, are reported as unsupported.
+ */
+public final class ThreadAllocationCounter {
+
+    private static final com.sun.management.ThreadMXBean THREADS = findThreadBean();
+
+    private ThreadAllocationCounter() {
+    }
+
+    private static com.sun.management.ThreadMXBean findThreadBean() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+                return null;
+            }
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (!threads.isThreadAllocatedMemorySupported()) {
+                return null;
+            }
+            if (!threads.isThreadAllocatedMemoryEnabled()) {
+                threads.setThreadAllocatedMemoryEnabled(true);
+            }
+            return threads;
+        } catch (RuntimeException | LinkageError e) {
+            // Not a HotSpot JVM, or not allowed to turn counting on
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether per-thread allocation counts are available.
+     *
+     * @return true if {@link #getAllocatedBytes()} returns real counts
+     */
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    /**
+     * Gets the number of bytes the current thread has allocated since it started.
+     *
+     * @return The allocated bytes, or -1 if per-thread counts are not supported
+     */
+    public static long getAllocatedBytes() {
+        return THREADS != null ? THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+}
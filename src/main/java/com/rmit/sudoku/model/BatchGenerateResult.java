@@ -0,0 +1,49 @@
+package com.rmit.sudoku.model;
+
+public class BatchGenerateResult {
+    private int index;
+    private long seed;
+    private int[][] board;
+    private String message;
+    private long timeTakenMicros;
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int[][] getBoard() {
+        return board;
+    }
+
+    public void setBoard(int[][] board) {
+        this.board = board;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public long getTimeTakenMicros() {
+        return timeTakenMicros;
+    }
+
+    public void setTimeTakenMicros(long timeTakenMicros) {
+        this.timeTakenMicros = timeTakenMicros;
+    }
+}
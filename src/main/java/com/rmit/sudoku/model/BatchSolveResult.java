@@ -0,0 +1,49 @@
+package com.rmit.sudoku.model;
+
+public class BatchSolveResult {
+    private int index;
+    private int[][] board;
+    private boolean solved;
+    private String message;
+    private long timeTakenMicros;
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public int[][] getBoard() {
+        return board;
+    }
+
+    public void setBoard(int[][] board) {
+        this.board = board;
+    }
+
+    public boolean isSolved() {
+        return solved;
+    }
+
+    public void setSolved(boolean solved) {
+        this.solved = solved;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public long getTimeTakenMicros() {
+        return timeTakenMicros;
+    }
+
+    public void setTimeTakenMicros(long timeTakenMicros) {
+        this.timeTakenMicros = timeTakenMicros;
+    }
+}
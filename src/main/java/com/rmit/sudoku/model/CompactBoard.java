@@ -0,0 +1,241 @@
+package com.rmit.sudoku.model;
+
+import java.util.Arrays;
+
+/**
+ * Compact 9x9 Sudoku board backed by a single {@code byte[81]} in row-major order
+ * (0 for empty cells, 1-9 for filled cells).
+ * <p>
+ * Compared with {@code int[][]} it is one allocation instead of ten and about a fifth of the
+ * memory, and cells are addressed by a flat index {@code row * 9 + col}. Boards convert to and
+ * from {@code int[][]}, the standard 81-character line format, and a 41-byte packed form that
+ * stores two cells per byte. Values are checked on the way in, so a CompactBoard always holds
+ * digits between 0 and 9 (duplicates are not checked, see
+ * {@link com.rmit.sudoku.validator.SudokuValidator#isValidBoard(CompactBoard)}).
+ */
+public final class CompactBoard {
+
+    public static final int GRID_SIZE = 9;
+    public static final int CELL_COUNT = GRID_SIZE * GRID_SIZE;
+    public static final int PACKED_SIZE = (CELL_COUNT + 1) / 2;
+
+    private final byte[] cells;
+
+    private CompactBoard(byte[] cells) {
+        this.cells = cells;
+    }
+
+    /**
+     * Creates an empty board.
+     */
+    public CompactBoard() {
+        this(new byte[CELL_COUNT]);
+    }
+
+    /**
+     * Creates a board from a 2D array.
+     *
+     * @param board 2D array representing the puzzle (0 for empty cells, 1-9 for filled cells)
+     * @return The compact board
+     * @throws IllegalArgumentException if the array is not 9x9 or holds values outside 0-9
+     */
+    public static CompactBoard fromArray(int[][] board) {
+        if (board == null || board.length != GRID_SIZE) {
+            throw new IllegalArgumentException("Board must be a 9x9 grid");
+        }
+        byte[] cells = new byte[CELL_COUNT];
+        for (int i = 0; i < GRID_SIZE; i++) {
+            if (board[i] == null || board[i].length != GRID_SIZE) {
+                throw new IllegalArgumentException("Board must be a 9x9 grid");
+            }
+            for (int j = 0; j < GRID_SIZE; j++) {
+                int value = board[i][j];
+                if (value < 0 || value > 9) {
+                    throw new IllegalArgumentException("Board values must be between 0 and 9");
+                }
+                cells[i * GRID_SIZE + j] = (byte) value;
+            }
+        }
+        return new CompactBoard(cells);
+    }
+
+    /**
+     * Creates a board from an 81-character string (1-9 for filled cells, 0 or '.' for empty cells).
+     *
+     * @param line The puzzle string
+     * @return The compact board
+     * @throws IllegalArgumentException if the string is not a valid puzzle line
+     */
+    public static CompactBoard fromString(CharSequence line) {
+        if (line == null || line.length() != CELL_COUNT) {
+            throw new IllegalArgumentException("Puzzle lines must have exactly 81 characters");
+        }
+        byte[] cells = new byte[CELL_COUNT];
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            char c = line.charAt(cell);
+            if (c >= '1' && c <= '9') {
+                cells[cell] = (byte) (c - '0');
+            } else if (c != '0' && c != '.') {
+                throw new IllegalArgumentException("Puzzle lines may only contain 1-9, 0 or '.'");
+            }
+        }
+        return new CompactBoard(cells);
+    }
+
+    /**
+     * Creates a board from its packed form (see {@link #toPacked()}).
+     *
+     * @param packed The packed cells
+     * @return The compact board
+     * @throws IllegalArgumentException if the array has the wrong length or holds values outside 0-9
+     */
+    public static CompactBoard fromPacked(byte[] packed) {
+        if (packed == null || packed.length != PACKED_SIZE) {
+            throw new IllegalArgumentException("Packed board must have " + PACKED_SIZE + " bytes");
+        }
+        byte[] cells = new byte[CELL_COUNT];
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            int value = (packed[cell >> 1] >> ((cell & 1) << 2)) & 0xF;
+            if (value > 9) {
+                throw new IllegalArgumentException("Board values must be between 0 and 9");
+            }
+            cells[cell] = (byte) value;
+        }
+        return new CompactBoard(cells);
+    }
+
+    /**
+     * Converts the board to a new 2D array.
+     *
+     * @return A 9x9 array of the cell values
+     */
+    public int[][] toArray() {
+        int[][] board = new int[GRID_SIZE][GRID_SIZE];
+        copyInto(board);
+        return board;
+    }
+
+    /**
+     * Copies the cell values into an existing 9x9 array, e.g. a reused solver buffer.
+     *
+     * @param board The array to fill
+     */
+    public void copyInto(int[][] board) {
+        for (int i = 0; i < GRID_SIZE; i++) {
+            int[] row = board[i];
+            int offset = i * GRID_SIZE;
+            for (int j = 0; j < GRID_SIZE; j++) {
+                row[j] = cells[offset + j];
+            }
+        }
+    }
+
+    /**
+     * Packs the board into 41 bytes: cell {@code 2k} in the low nibble of byte {@code k}
+     * and cell {@code 2k + 1} in the high nibble.
+     *
+     * @return The packed cells
+     */
+    public byte[] toPacked() {
+        byte[] packed = new byte[PACKED_SIZE];
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            packed[cell >> 1] |= (byte) (cells[cell] << ((cell & 1) << 2));
+        }
+        return packed;
+    }
+
+    /**
+     * Gets the value of a cell.
+     *
+     * @param cell The flat cell index (row * 9 + col)
+     * @return The value, 0 for an empty cell
+     */
+    public int get(int cell) {
+        return cells[cell];
+    }
+
+    /**
+     * Gets the value of a cell.
+     *
+     * @param row The row index
+     * @param col The column index
+     * @return The value, 0 for an empty cell
+     */
+    public int get(int row, int col) {
+        return cells[row * GRID_SIZE + col];
+    }
+
+    /**
+     * Sets the value of a cell.
+     *
+     * @param cell The flat cell index (row * 9 + col)
+     * @param value The value, 0 to clear the cell
+     * @throws IllegalArgumentException if the value is outside 0-9
+     */
+    public void set(int cell, int value) {
+        if (value < 0 || value > 9) {
+            throw new IllegalArgumentException("Board values must be between 0 and 9");
+        }
+        cells[cell] = (byte) value;
+    }
+
+    /**
+     * Sets the value of a cell.
+     *
+     * @param row The row index
+     * @param col The column index
+     * @param value The value, 0 to clear the cell
+     * @throws IllegalArgumentException if the value is outside 0-9
+     */
+    public void set(int row, int col, int value) {
+        set(row * GRID_SIZE + col, value);
+    }
+
+    /**
+     * Gets the number of empty cells.
+     *
+     * @return The empty cell count
+     */
+    public int getEmptyCount() {
+        int empty = 0;
+        for (byte value : cells) {
+            if (value == 0) empty++;
+        }
+        return empty;
+    }
+
+    /**
+     * Creates an independent copy of the board.
+     *
+     * @return The copy
+     */
+    public CompactBoard copy() {
+        return new CompactBoard(cells.clone());
+    }
+
+    /**
+     * Gets the board in the 81-character line format, with 0 for empty cells.
+     *
+     * @return The puzzle string
+     */
+    @Override
+    public String toString() {
+        char[] line = new char[CELL_COUNT];
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            line[cell] = (char) ('0' + cells[cell]);
+        }
+        return new String(line);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CompactBoard)) return false;
+        return Arrays.equals(cells, ((CompactBoard) o).cells);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(cells);
+    }
+}
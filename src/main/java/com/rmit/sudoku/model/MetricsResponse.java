@@ -0,0 +1,69 @@
+package com.rmit.sudoku.model;
+
+import java.util.List;
+
+public class MetricsResponse {
+    private long cacheHits;
+    private long cacheMisses;
+    private long cacheEvictions;
+    private int cacheSize;
+    private long cacheWeightBytes;
+    private double cacheHitRate;
+    private List<PuzzlePoolMetrics> puzzlePools;
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public void setCacheHits(long cacheHits) {
+        this.cacheHits = cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    public void setCacheMisses(long cacheMisses) {
+        this.cacheMisses = cacheMisses;
+    }
+
+    public long getCacheEvictions() {
+        return cacheEvictions;
+    }
+
+    public void setCacheEvictions(long cacheEvictions) {
+        this.cacheEvictions = cacheEvictions;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    public long getCacheWeightBytes() {
+        return cacheWeightBytes;
+    }
+
+    public void setCacheWeightBytes(long cacheWeightBytes) {
+        this.cacheWeightBytes = cacheWeightBytes;
+    }
+
+    public double getCacheHitRate() {
+        return cacheHitRate;
+    }
+
+    public void setCacheHitRate(double cacheHitRate) {
+        this.cacheHitRate = cacheHitRate;
+    }
+
+    public List<PuzzlePoolMetrics> getPuzzlePools() {
+        return puzzlePools;
+    }
+
+    public void setPuzzlePools(List<PuzzlePoolMetrics> puzzlePools) {
+        this.puzzlePools = puzzlePools;
+    }
+}
@@ -0,0 +1,85 @@
+package com.rmit.sudoku.model;
+
+public class PuzzlePoolMetrics {
+    private String difficulty;
+    private int size;
+    private int capacity;
+    private int lowWatermark;
+    private long generated;
+    private long served;
+    private long fallbacks;
+    private long failures;
+    private double refillRatePerSecond;
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(String difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getLowWatermark() {
+        return lowWatermark;
+    }
+
+    public void setLowWatermark(int lowWatermark) {
+        this.lowWatermark = lowWatermark;
+    }
+
+    public long getGenerated() {
+        return generated;
+    }
+
+    public void setGenerated(long generated) {
+        this.generated = generated;
+    }
+
+    public long getServed() {
+        return served;
+    }
+
+    public void setServed(long served) {
+        this.served = served;
+    }
+
+    public long getFallbacks() {
+        return fallbacks;
+    }
+
+    public void setFallbacks(long fallbacks) {
+        this.fallbacks = fallbacks;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public void setFailures(long failures) {
+        this.failures = failures;
+    }
+
+    public double getRefillRatePerSecond() {
+        return refillRatePerSecond;
+    }
+
+    public void setRefillRatePerSecond(double refillRatePerSecond) {
+        this.refillRatePerSecond = refillRatePerSecond;
+    }
+}
@@ -2,6 +2,7 @@ package com.rmit.sudoku.model;
 
 public class SudokuRequest {
     private int[][] board;
+    private Long timeoutMs;
 
     public int[][] getBoard() {
         return board;
@@ -10,4 +11,12 @@ public class SudokuRequest {
     public void setBoard(int[][] board) {
         this.board = board;
     }
+
+    public Long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public void setTimeoutMs(Long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
 }
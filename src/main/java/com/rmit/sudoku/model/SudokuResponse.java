@@ -1,5 +1,7 @@
 package com.rmit.sudoku.model;
 
+import java.util.Map;
+
 public class SudokuResponse {
     private int[][] board;
     private boolean solved;
@@ -8,6 +10,15 @@ public class SudokuResponse {
     private long timeTakenMs;
     private int maxRecursionDepth;
     private String memoryUsed;
+    private long allocatedBytes = -1;
+    private Map<String, Long> allocatedBytesByPhase;
+    private String solvedBy;
+    private boolean timedOut;
+    private long timeoutMs;
+    private boolean cacheHit;
+    private long cacheHits;
+    private long cacheMisses;
+    private long cacheEvictions;
 
     public int[][] getBoard() {
         return board;
@@ -64,4 +75,76 @@ public class SudokuResponse {
     public void setMemoryUsed(String memoryUsed) {
         this.memoryUsed = memoryUsed;
     }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public void setAllocatedBytes(long allocatedBytes) {
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public Map<String, Long> getAllocatedBytesByPhase() {
+        return allocatedBytesByPhase;
+    }
+
+    public void setAllocatedBytesByPhase(Map<String, Long> allocatedBytesByPhase) {
+        this.allocatedBytesByPhase = allocatedBytesByPhase;
+    }
+
+    public String getSolvedBy() {
+        return solvedBy;
+    }
+
+    public void setSolvedBy(String solvedBy) {
+        this.solvedBy = solvedBy;
+    }
+
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    public void setTimedOut(boolean timedOut) {
+        this.timedOut = timedOut;
+    }
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public void setTimeoutMs(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    public boolean isCacheHit() {
+        return cacheHit;
+    }
+
+    public void setCacheHit(boolean cacheHit) {
+        this.cacheHit = cacheHit;
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public void setCacheHits(long cacheHits) {
+        this.cacheHits = cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    public void setCacheMisses(long cacheMisses) {
+        this.cacheMisses = cacheMisses;
+    }
+
+    public long getCacheEvictions() {
+        return cacheEvictions;
+    }
+
+    public void setCacheEvictions(long cacheEvictions) {
+        this.cacheEvictions = cacheEvictions;
+    }
 }
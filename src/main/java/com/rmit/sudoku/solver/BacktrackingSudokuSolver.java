@@ -54,6 +54,11 @@ public class BacktrackingSudokuSolver implements SudokuSolver {
 
     @Override
     public int[][] solve(int[][] board) throws SudokuTimeoutException {
+        return solve(board, null);
+    }
+
+    @Override
+    public int[][] solve(int[][] board, CancellationToken token) throws SudokuTimeoutException {
         // Validate input
         if (board == null || board.length != GRID_SIZE) {
             throw new IllegalArgumentException("Board must be a 9x9 grid");
@@ -85,7 +90,9 @@ public class BacktrackingSudokuSolver implements SudokuSolver {
         }
 
         // Solve the puzzle
-        boolean solved = solveBoard(workingBoard);
+        CancellationToken searchToken = CancellationToken.withTimeout(token, timeoutMs);
+        CancellationToken.Poller poller = new CancellationToken.Poller(searchToken);
+        boolean solved = solveBoard(workingBoard, metrics, poller);
 
         // Stop tracking metrics
         metrics.stopTracking();
@@ -97,70 +104,107 @@ public class BacktrackingSudokuSolver implements SudokuSolver {
 
         if (solved) {
             return workingBoard;
-        } else {
-            return null; // No solution exists
+        } else if (poller.isStopped()) {
+            searchToken.throwIfStopped();
         }
+        return null; // No solution exists
     }
 
     /**
-     * Recursive backtracking algorithm to solve the Sudoku puzzle.
+     * Backtracking algorithm to solve the Sudoku puzzle.
+     * Shared with {@link ParallelBacktrackingSudokuSolver}, which runs it on several subtrees at once.
+     * Operations and depth are counted in plain fields and added to {@code metrics} once the
+     * search finishes, so the counters cost next to nothing on the hot path.
      *
      * @param board The current state of the board
-     * @return true if a solution is found, false otherwise
-     * @throws SudokuTimeoutException if the puzzle cannot be solved within the time limit
+     * @param metrics The metrics to update (not shared with other threads)
+     * @param poller This thread's poller of the search's cancellation token
+     * @return true if a solution is found, false otherwise (including when stopped)
+     */
+    static boolean solveBoard(int[][] board, SudokuMetrics metrics, CancellationToken.Poller poller) {
+        Search search = new Search(board, metrics, poller);
+        try {
+            return search.solve(1);
+        } finally {
+            // Skip the bookkeeping entirely when the metrics are off
+            if (metrics.isCounting()) {
+                metrics.addOperationCount(search.operations);
+                metrics.recordNestedDepth(search.maxDepth);
+            }
+        }
+    }
+
+    /**
+     * One run of the recursive search, with its counters.
      */
-    private boolean solveBoard(int[][] board) throws SudokuTimeoutException {
-        // Check if we've exceeded the time limit
-        if (metrics.hasExceededTimeLimit(timeoutMs)) {
-            throw new SudokuTimeoutException("Solving took longer than " + (timeoutMs / 1000) + " seconds");
+    private static final class Search {
+        private final int[][] board;
+        private final SudokuMetrics metrics;
+        private final CancellationToken.Poller poller;
+        private final boolean sampleMemory;
+        long operations;
+        int maxDepth;
+
+        Search(int[][] board, SudokuMetrics metrics, CancellationToken.Poller poller) {
+            this.board = board;
+            this.metrics = metrics;
+            this.poller = poller;
+            this.sampleMemory = metrics.isSamplingHeap();
         }
 
-        // Increment recursion depth
-        metrics.incrementRecursionDepth();
-
-        // Check current memory usage periodically
-        metrics.updatePeakMemoryUsage();
-
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                // Find an empty cell
-                if (board[row][col] == 0) {
-                    // Try placing numbers 1-9
-                    for (int numberToTry = 1; numberToTry <= GRID_SIZE; numberToTry++) {
-                        // Increment operation count
-                        metrics.incrementOperationCount();
-
-                        if (SudokuValidator.isValidPlacement(board, numberToTry, row, col)) {
-                            // Place the number
-                            board[row][col] = numberToTry;
-                            metrics.incrementOperationCount(); // Count the placement operation
-
-                            // Recursively try to solve the rest of the board
-                            try {
-                                if (solveBoard(board)) {
+        /**
+         * Recursive backtracking algorithm to solve the Sudoku puzzle.
+         *
+         * @param depth The recursion depth of this call, 1 for the first
+         * @return true if a solution is found, false otherwise (including when stopped)
+         */
+        boolean solve(int depth) {
+            // Give up once the token is cancelled or a deadline passes
+            if (poller.shouldStop()) {
+                return false;
+            }
+
+            if (depth > maxDepth) {
+                maxDepth = depth;
+            }
+
+            // Check current memory usage periodically
+            if (sampleMemory) {
+                metrics.updatePeakMemoryUsage();
+            }
+
+            for (int row = 0; row < GRID_SIZE; row++) {
+                for (int col = 0; col < GRID_SIZE; col++) {
+                    // Find an empty cell
+                    if (board[row][col] == 0) {
+                        // Try placing numbers 1-9
+                        for (int numberToTry = 1; numberToTry <= GRID_SIZE; numberToTry++) {
+                            operations++;
+
+                            if (SudokuValidator.isValidPlacement(board, numberToTry, row, col)) {
+                                // Place the number
+                                board[row][col] = numberToTry;
+                                operations++; // Count the placement operation
+
+                                // Recursively try to solve the rest of the board
+                                if (solve(depth + 1)) {
                                     return true;
                                 }
-                            } catch (SudokuTimeoutException e) {
-                                // Propagate the timeout exception
-                                metrics.decrementRecursionDepth();
-                                throw e;
-                            }
 
-                            // If placing the number doesn't lead to a solution, backtrack
-                            board[row][col] = 0;
-                            metrics.incrementOperationCount(); // Count the backtracking operation
+                                // If placing the number doesn't lead to a solution, backtrack
+                                board[row][col] = 0;
+                                operations++; // Count the backtracking operation
+                            }
                         }
+                        // If no number can be placed in this cell, the puzzle is unsolvable
+                        return false;
                     }
-                    // If no number can be placed in this cell, the puzzle is unsolvable
-                    metrics.decrementRecursionDepth();
-                    return false;
                 }
             }
-        }
 
-        // If we've filled all cells, we've solved the puzzle
-        metrics.decrementRecursionDepth();
-        return true;
+            // If we've filled all cells, we've solved the puzzle
+            return true;
+        }
     }
 
     /**
@@ -0,0 +1,325 @@
+package com.rmit.sudoku.solver;
+
+import com.rmit.sudoku.metrics.SudokuMetrics;
+import com.rmit.sudoku.model.CompactBoard;
+import com.rmit.sudoku.validator.SudokuValidator;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of the SudokuSolver interface using backtracking over candidate bitmasks.
+ * Each row, column and box keeps a 9-bit mask of the digits already placed in it, so the
+ * candidates of a cell are available in constant time. The search always branches on the
+ * empty cell with the fewest candidates (minimum remaining values).
+ */
+public class BitmaskSudokuSolver implements SudokuSolver {
+
+    private static final int GRID_SIZE = 9;
+    private static final int BOX_SIZE = 3;
+    private static final int CELL_COUNT = GRID_SIZE * GRID_SIZE;
+    private static final int ALL_DIGITS = (1 << GRID_SIZE) - 1; // bits 0-8 for digits 1-9
+    private static final long DEFAULT_TIMEOUT_MS = 120000; // 2 minutes
+
+    private static final int[] ROW_OF = new int[CELL_COUNT];
+    private static final int[] COL_OF = new int[CELL_COUNT];
+    private static final int[] BOX_OF = new int[CELL_COUNT];
+
+    static {
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            ROW_OF[cell] = cell / GRID_SIZE;
+            COL_OF[cell] = cell % GRID_SIZE;
+            BOX_OF[cell] = (ROW_OF[cell] / BOX_SIZE) * BOX_SIZE + COL_OF[cell] / BOX_SIZE;
+        }
+    }
+
+    private final SudokuMetrics metrics;
+    private final long timeoutMs;
+    private final boolean printMetrics;
+
+    // Search state, reset on every solve
+    private final int[] cells = new int[CELL_COUNT];
+    private final int[] rowUsed = new int[GRID_SIZE];
+    private final int[] colUsed = new int[GRID_SIZE];
+    private final int[] boxUsed = new int[GRID_SIZE];
+    private final int[] emptyCells = new int[CELL_COUNT];
+    private int emptyCount;
+    private CancellationToken.Poller poller;
+
+    // Counted in plain fields during the search and handed to the metrics once it ends
+    private long operations;
+    private int maxDepth;
+    private boolean sampleMemory;
+
+    /**
+     * Creates a new BitmaskSudokuSolver with the default timeout.
+     */
+    public BitmaskSudokuSolver() {
+        this(DEFAULT_TIMEOUT_MS, true);
+    }
+
+    /**
+     * Creates a new BitmaskSudokuSolver with the default timeout and specified metrics printing option.
+     *
+     * @param printMetrics Whether to print metrics after solving
+     */
+    public BitmaskSudokuSolver(boolean printMetrics) {
+        this(DEFAULT_TIMEOUT_MS, printMetrics);
+    }
+
+    /**
+     * Creates a new BitmaskSudokuSolver with a custom timeout.
+     *
+     * @param timeoutMs The timeout in milliseconds
+     */
+    public BitmaskSudokuSolver(long timeoutMs) {
+        this(timeoutMs, true);
+    }
+
+    /**
+     * Creates a new BitmaskSudokuSolver with a custom timeout and metrics printing option.
+     *
+     * @param timeoutMs The timeout in milliseconds
+     * @param printMetrics Whether to print metrics after solving
+     */
+    public BitmaskSudokuSolver(long timeoutMs, boolean printMetrics) {
+        this.metrics = new SudokuMetrics();
+        this.timeoutMs = timeoutMs;
+        this.printMetrics = printMetrics;
+    }
+
+    @Override
+    public int[][] solve(int[][] board) throws SudokuTimeoutException {
+        return solve(board, null);
+    }
+
+    @Override
+    public int[][] solve(int[][] board, CancellationToken token) throws SudokuTimeoutException {
+        // Validate input
+        if (board == null || board.length != GRID_SIZE) {
+            throw new IllegalArgumentException("Board must be a 9x9 grid");
+        }
+
+        for (int i = 0; i < GRID_SIZE; i++) {
+            if (board[i] == null || board[i].length != GRID_SIZE) {
+                throw new IllegalArgumentException("Board must be a 9x9 grid");
+            }
+
+            for (int j = 0; j < GRID_SIZE; j++) {
+                if (board[i][j] < 0 || board[i][j] > 9) {
+                    throw new IllegalArgumentException("Board values must be between 0 and 9");
+                }
+            }
+        }
+
+        if (!SudokuValidator.isValidBoard(board)) {
+            throw new IllegalArgumentException("Board contains invalid values");
+        }
+
+        resetState();
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            addCell(cell, board[ROW_OF[cell]][COL_OF[cell]]);
+        }
+
+        if (!runSearch(token)) {
+            return null; // No solution exists
+        }
+
+        int[][] solution = new int[GRID_SIZE][GRID_SIZE];
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            solution[ROW_OF[cell]][COL_OF[cell]] = cells[cell];
+        }
+        return solution;
+    }
+
+    /**
+     * Solves a compact board directly from its flat cells. Duplicate givens are detected
+     * while the masks are built, so no separate validation pass is needed.
+     */
+    @Override
+    public CompactBoard solve(CompactBoard board) throws SudokuTimeoutException {
+        if (board == null) {
+            throw new IllegalArgumentException("Board must be a 9x9 grid");
+        }
+
+        resetState();
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            if (!addCell(cell, board.get(cell))) {
+                throw new IllegalArgumentException("Board contains invalid values");
+            }
+        }
+
+        if (!runSearch(null)) {
+            return null; // No solution exists
+        }
+
+        CompactBoard solution = new CompactBoard();
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            solution.set(cell, cells[cell]);
+        }
+        return solution;
+    }
+
+    /**
+     * Runs the search on the loaded state while tracking metrics.
+     *
+     * @param token The caller's cancellation token, or null
+     * @return true if a solution is found; {@link #cells} then holds it
+     * @throws SudokuCancelledException if the search was cancelled before it finished
+     * @throws SudokuTimeoutException if the puzzle cannot be solved within the time limit
+     */
+    private boolean runSearch(CancellationToken token) throws SudokuTimeoutException {
+        // Start tracking metrics
+        metrics.startTracking();
+        CancellationToken searchToken = CancellationToken.withTimeout(token, timeoutMs);
+        poller = new CancellationToken.Poller(searchToken);
+        operations = 0;
+        maxDepth = 0;
+        sampleMemory = metrics.isSamplingHeap();
+
+        boolean solved;
+        try {
+            solved = search(0);
+        } finally {
+            if (metrics.isCounting()) {
+                metrics.addOperationCount(operations);
+                metrics.recordNestedDepth(maxDepth);
+            }
+
+            // Stop tracking metrics
+            metrics.stopTracking();
+
+            // Print metrics if enabled
+            if (printMetrics) {
+                metrics.printMetrics();
+            }
+        }
+
+        if (!solved && poller.isStopped()) {
+            searchToken.throwIfStopped();
+        }
+        return solved;
+    }
+
+    /**
+     * Resets the search state before the cells of a new board are added.
+     */
+    private void resetState() {
+        Arrays.fill(rowUsed, 0);
+        Arrays.fill(colUsed, 0);
+        Arrays.fill(boxUsed, 0);
+        emptyCount = 0;
+    }
+
+    /**
+     * Records one cell of the input board, adding a given to its row, column and box masks.
+     *
+     * @param cell The cell index
+     * @param value The cell value, 0 for an empty cell
+     * @return false if the given is already used in its row, column or box
+     */
+    private boolean addCell(int cell, int value) {
+        cells[cell] = value;
+        if (value == 0) {
+            emptyCells[emptyCount++] = cell;
+            return true;
+        }
+        int bit = 1 << (value - 1);
+        if (((rowUsed[ROW_OF[cell]] | colUsed[COL_OF[cell]] | boxUsed[BOX_OF[cell]]) & bit) != 0) {
+            return false;
+        }
+        rowUsed[ROW_OF[cell]] |= bit;
+        colUsed[COL_OF[cell]] |= bit;
+        boxUsed[BOX_OF[cell]] |= bit;
+        return true;
+    }
+
+    /**
+     * Recursive search that fills the empty cells from position {@code depth} onwards.
+     * Cells before {@code depth} in {@link #emptyCells} are already filled.
+     *
+     * @param depth Number of empty cells filled so far
+     * @return true if a solution is found, false otherwise (including when stopped)
+     */
+    private boolean search(int depth) {
+        // Give up once the token is cancelled or a deadline passes
+        if (poller.shouldStop()) {
+            return false;
+        }
+
+        if (depth == emptyCount) {
+            return true; // All cells are filled
+        }
+
+        if (depth >= maxDepth) {
+            maxDepth = depth + 1;
+        }
+        if (sampleMemory) {
+            metrics.updatePeakMemoryUsage();
+        }
+
+        // Pick the empty cell with the fewest candidates
+        int bestIndex = -1;
+        int bestCandidates = 0;
+        int bestCount = GRID_SIZE + 1;
+        for (int i = depth; i < emptyCount; i++) {
+            int cell = emptyCells[i];
+            int candidates = ~(rowUsed[ROW_OF[cell]] | colUsed[COL_OF[cell]] | boxUsed[BOX_OF[cell]]) & ALL_DIGITS;
+            int count = Integer.bitCount(candidates);
+            if (count < bestCount) {
+                bestCount = count;
+                bestCandidates = candidates;
+                bestIndex = i;
+                if (count <= 1) {
+                    break; // Cannot do better than a forced or dead cell
+                }
+            }
+        }
+
+        if (bestCount == 0) {
+            // Dead end: some cell has no candidate left
+            return false;
+        }
+
+        int cell = emptyCells[bestIndex];
+        emptyCells[bestIndex] = emptyCells[depth];
+        emptyCells[depth] = cell;
+
+        int row = ROW_OF[cell];
+        int col = COL_OF[cell];
+        int box = BOX_OF[cell];
+
+        while (bestCandidates != 0) {
+            int bit = bestCandidates & -bestCandidates;
+            bestCandidates ^= bit;
+
+            // Place the digit, counting the try and the placement
+            cells[cell] = Integer.numberOfTrailingZeros(bit) + 1;
+            rowUsed[row] |= bit;
+            colUsed[col] |= bit;
+            boxUsed[box] |= bit;
+            operations += 2;
+
+            if (search(depth + 1)) {
+                return true;
+            }
+
+            // Backtrack
+            cells[cell] = 0;
+            rowUsed[row] &= ~bit;
+            colUsed[col] &= ~bit;
+            boxUsed[box] &= ~bit;
+            operations++; // Count the backtracking operation
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the metrics object.
+     *
+     * @return The metrics object
+     */
+    public SudokuMetrics getMetrics() {
+        return metrics;
+    }
+}
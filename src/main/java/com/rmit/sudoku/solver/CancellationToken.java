@@ -0,0 +1,234 @@
+package com.rmit.sudoku.solver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cooperative cancellation and deadline of a solve.
+ * <p>
+ * A token stops a search once another thread calls {@link #cancel()} or once its deadline has
+ * passed. Tokens form a tree: a child stops whenever its parent stops, but cancelling the child
+ * leaves the parent running. A race can thus stop its engines without cancelling the request it
+ * serves, while the request's deadline and cancellation still reach every engine.
+ * <p>
+ * Searches do not read the token at every node. Each search thread polls it through its own
+ * {@link Poller}, which looks at the token once every {@link #CHECK_INTERVAL} nodes. A search
+ * that is told to stop unwinds by returning normally; the exception that tells the caller why is
+ * thrown once, after the search, by {@link #throwIfStopped()}.
+ */
+public final class CancellationToken {
+
+    /** Number of search nodes between two looks at the token. */
+    public static final int CHECK_INTERVAL = 1024;
+
+    private static final long NO_TIMEOUT = -1;
+
+    private final CancellationToken parent;
+    private final long startNanos;
+    private final long timeoutNanos; // NO_TIMEOUT if only the parent's deadline applies
+    private final long timeoutMs;
+    private volatile boolean cancelled;
+    private volatile boolean expired;
+
+    /**
+     * Creates a new CancellationToken without a deadline.
+     */
+    public CancellationToken() {
+        this(null, NO_TIMEOUT);
+    }
+
+    /**
+     * Creates a new CancellationToken whose deadline is {@code timeoutMs} from now.
+     *
+     * @param timeoutMs The timeout in milliseconds
+     * @throws IllegalArgumentException if the timeout is not positive
+     */
+    public CancellationToken(long timeoutMs) {
+        this(null, checkTimeout(timeoutMs));
+    }
+
+    private CancellationToken(CancellationToken parent, long timeoutMs) {
+        this.parent = parent;
+        this.startNanos = System.nanoTime();
+        this.timeoutMs = timeoutMs;
+        this.timeoutNanos = timeoutMs == NO_TIMEOUT ? NO_TIMEOUT : TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    }
+
+    private static long checkTimeout(long timeoutMs) {
+        if (timeoutMs <= 0) {
+            throw new IllegalArgumentException("Timeout must be positive");
+        }
+        return timeoutMs;
+    }
+
+    /**
+     * Creates a token for a search with its own timeout: a child of {@code parent} that also
+     * expires {@code timeoutMs} from now, or a new token if there is no parent.
+     *
+     * @param parent The caller's token, or null
+     * @param timeoutMs The search's own timeout in milliseconds
+     * @return The token for the search
+     */
+    public static CancellationToken withTimeout(CancellationToken parent, long timeoutMs) {
+        return parent != null ? parent.child(timeoutMs) : new CancellationToken(timeoutMs);
+    }
+
+    /**
+     * Creates a child token with this token's deadline.
+     *
+     * @return A token that stops when this one does, and can be cancelled on its own
+     */
+    public CancellationToken child() {
+        return new CancellationToken(this, NO_TIMEOUT);
+    }
+
+    /**
+     * Creates a child token that also expires {@code timeoutMs} from now.
+     *
+     * @param timeoutMs The timeout in milliseconds
+     * @return A token that stops when this one does or its own timeout passes
+     * @throws IllegalArgumentException if the timeout is not positive
+     */
+    public CancellationToken child(long timeoutMs) {
+        return new CancellationToken(this, checkTimeout(timeoutMs));
+    }
+
+    /**
+     * Asks every search using this token or one of its children to stop. Can be called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Checks whether this token or one of its ancestors has been cancelled.
+     *
+     * @return true if cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled || (parent != null && parent.isCancelled());
+    }
+
+    /**
+     * Checks whether the deadline of this token or of one of its ancestors has passed.
+     *
+     * @return true if expired
+     */
+    public boolean hasExpired() {
+        return expiredToken() != null;
+    }
+
+    /**
+     * Checks whether searches using this token should stop.
+     *
+     * @return true if the token has been cancelled or has expired
+     */
+    public boolean isStopRequested() {
+        return isCancelled() || hasExpired();
+    }
+
+    /**
+     * Gets the time left until the earliest deadline of this token and its ancestors.
+     *
+     * @return The remaining milliseconds (0 once expired), or {@link Long#MAX_VALUE} if there is no deadline
+     */
+    public long getRemainingMs() {
+        long remaining = Long.MAX_VALUE;
+        for (CancellationToken token = this; token != null; token = token.parent) {
+            if (token.timeoutNanos != NO_TIMEOUT) {
+                long left = token.timeoutNanos - (System.nanoTime() - token.startNanos);
+                remaining = Math.min(remaining, Math.max(0, TimeUnit.NANOSECONDS.toMillis(left)));
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Throws if a deadline has passed. Cancellation alone does not throw.
+     *
+     * @throws SudokuTimeoutException if this token or one of its ancestors has expired
+     */
+    public void throwIfExpired() throws SudokuTimeoutException {
+        CancellationToken token = expiredToken();
+        if (token != null) {
+            throw new SudokuTimeoutException("Solving took longer than " + formatTimeout(token.timeoutMs));
+        }
+    }
+
+    /**
+     * Throws if searches using this token have been told to stop, to report why after the search unwound.
+     *
+     * @throws SudokuCancelledException if this token or one of its ancestors has been cancelled
+     * @throws SudokuTimeoutException if this token or one of its ancestors has expired
+     */
+    public void throwIfStopped() throws SudokuTimeoutException {
+        if (isCancelled()) {
+            throw new SudokuCancelledException("Solving was cancelled");
+        }
+        throwIfExpired();
+    }
+
+    /**
+     * Finds the first token on the path to the root whose deadline has passed.
+     */
+    private CancellationToken expiredToken() {
+        for (CancellationToken token = this; token != null; token = token.parent) {
+            if (token.expired) {
+                return token;
+            }
+            if (token.timeoutNanos != NO_TIMEOUT && System.nanoTime() - token.startNanos >= token.timeoutNanos) {
+                token.expired = true;
+                return token;
+            }
+        }
+        return null;
+    }
+
+    private static String formatTimeout(long timeoutMs) {
+        return timeoutMs % 1000 == 0 ? (timeoutMs / 1000) + " seconds" : timeoutMs + " ms";
+    }
+
+    /**
+     * Counts the nodes of one search thread and looks at a token once every
+     * {@link #CHECK_INTERVAL} nodes. Once the token says stop, every later call returns true.
+     * Not thread-safe: each thread of a parallel search needs its own.
+     */
+    public static final class Poller {
+        private final CancellationToken token;
+        private int countdown = 1; // look at the token on the first node
+        private boolean stopped;
+
+        /**
+         * Creates a new Poller.
+         *
+         * @param token The token to poll, or null for a search that never stops early
+         */
+        public Poller(CancellationToken token) {
+            this.token = token;
+        }
+
+        /**
+         * Counts one search node and checks whether the search should stop.
+         *
+         * @return true if the search should unwind
+         */
+        public boolean shouldStop() {
+            if (--countdown > 0) {
+                return stopped;
+            }
+            countdown = CHECK_INTERVAL;
+            if (token != null && token.isStopRequested()) {
+                stopped = true;
+            }
+            return stopped;
+        }
+
+        /**
+         * Checks whether a previous call told the search to stop.
+         *
+         * @return true if the search was stopped early
+         */
+        public boolean isStopped() {
+            return stopped;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.rmit.sudoku.solver;
+
+import com.rmit.sudoku.metrics.SudokuMetrics;
+import com.rmit.sudoku.validator.SudokuValidator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel variant of the BacktrackingSudokuSolver.
+ * <p>
+ * The first branching levels of the backtracking tree (first empty cell, every valid digit) are
+ * expanded into a frontier of partial boards, and each partial board is searched as a separate
+ * task on a ForkJoinPool with work stealing. Tasks stop cooperatively as soon as any of them
+ * finds a solution. Every task counts into its own SudokuMetrics, and the counters are merged
+ * into the solver's metrics once all tasks have finished.
+ * <p>
+ * Each instance owns its pool; call {@link #shutdown()} once the solver is no longer needed.
+ */
+public class ParallelBacktrackingSudokuSolver implements SudokuSolver {
+
+    private static final int GRID_SIZE = 9;
+    private static final long DEFAULT_TIMEOUT_MS = 120000; // 2 minutes
+    private static final int TASKS_PER_THREAD = 8;
+    private static final int MAX_FRONTIER_DEPTH = 6;
+
+    private final SudokuMetrics metrics;
+    private final long timeoutMs;
+    private final boolean printMetrics;
+    private final int parallelism;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a new ParallelBacktrackingSudokuSolver using all available processors.
+     */
+    public ParallelBacktrackingSudokuSolver() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new ParallelBacktrackingSudokuSolver with the given pool size.
+     *
+     * @param parallelism The number of worker threads
+     */
+    public ParallelBacktrackingSudokuSolver(int parallelism) {
+        this(DEFAULT_TIMEOUT_MS, true, parallelism);
+    }
+
+    /**
+     * Creates a new ParallelBacktrackingSudokuSolver with a custom timeout, metrics printing option and pool size.
+     *
+     * @param timeoutMs The timeout in milliseconds
+     * @param printMetrics Whether to print metrics after solving
+     * @param parallelism The number of worker threads
+     */
+    public ParallelBacktrackingSudokuSolver(long timeoutMs, boolean printMetrics, int parallelism) {
+        this.metrics = new SudokuMetrics();
+        this.timeoutMs = timeoutMs;
+        this.printMetrics = printMetrics;
+        this.parallelism = Math.max(1, parallelism);
+        this.pool = new ForkJoinPool(this.parallelism);
+    }
+
+    @Override
+    public int[][] solve(int[][] board) throws SudokuTimeoutException {
+        return solve(board, null);
+    }
+
+    @Override
+    public int[][] solve(int[][] board, CancellationToken token) throws SudokuTimeoutException {
+        // Validate input
+        if (board == null || board.length != GRID_SIZE) {
+            throw new IllegalArgumentException("Board must be a 9x9 grid");
+        }
+
+        for (int i = 0; i < GRID_SIZE; i++) {
+            if (board[i] == null || board[i].length != GRID_SIZE) {
+                throw new IllegalArgumentException("Board must be a 9x9 grid");
+            }
+
+            for (int j = 0; j < GRID_SIZE; j++) {
+                if (board[i][j] < 0 || board[i][j] > 9) {
+                    throw new IllegalArgumentException("Board values must be between 0 and 9");
+                }
+            }
+        }
+
+        if (!SudokuValidator.isValidBoard(board)) {
+            throw new IllegalArgumentException("Board contains invalid values");
+        }
+
+        // Start tracking metrics
+        metrics.startTracking();
+
+        try {
+            metrics.startPhase("frontier");
+            List<int[][]> frontier = expandFrontier(copyOf(board));
+            SearchContext context = new SearchContext(CancellationToken.withTimeout(token, timeoutMs));
+
+            metrics.startPhase("search");
+            List<SubtreeTask> tasks = new ArrayList<>(frontier.size());
+            for (int[][] partial : frontier) {
+                tasks.add(new SubtreeTask(context, partial, metrics.fork()));
+            }
+
+            // The tasks count their own allocations, even if this thread ends up running some of them
+            metrics.pauseAllocationTracking();
+            try {
+                pool.invoke(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        invokeAll(tasks);
+                    }
+                });
+            } finally {
+                metrics.resumeAllocationTracking();
+            }
+
+            // Merge the per-task counters now that all tasks have finished
+            for (SubtreeTask task : tasks) {
+                metrics.merge(task.taskMetrics);
+            }
+
+            if (context.solution == null) {
+                context.searchToken.throwIfStopped();
+            }
+            return context.solution;
+        } finally {
+            // Stop tracking metrics
+            metrics.stopTracking();
+
+            // Print metrics if enabled
+            if (printMetrics) {
+                metrics.printMetrics();
+            }
+        }
+    }
+
+    /**
+     * Expands the first levels of the backtracking tree breadth-first until there are enough
+     * subtrees to keep every worker busy. Branches follow the sequential solver: the first empty
+     * cell, with every digit that is valid there.
+     *
+     * @param board The starting board
+     * @return The partial boards to search, or a single full board if the puzzle is already solved
+     */
+    private List<int[][]> expandFrontier(int[][] board) {
+        List<int[][]> frontier = new ArrayList<>();
+        frontier.add(board);
+        int target = parallelism * TASKS_PER_THREAD;
+        boolean counting = metrics.isCounting();
+
+        for (int depth = 0; depth < MAX_FRONTIER_DEPTH && frontier.size() < target; depth++) {
+            List<int[][]> next = new ArrayList<>();
+            boolean expanded = false;
+            for (int[][] partial : frontier) {
+                int empty = firstEmptyCell(partial);
+                if (empty < 0) {
+                    next.add(partial); // Already solved
+                    continue;
+                }
+                expanded = true;
+                int row = empty / GRID_SIZE;
+                int col = empty % GRID_SIZE;
+                for (int number = 1; number <= GRID_SIZE; number++) {
+                    if (counting) metrics.incrementOperationCount();
+                    if (SudokuValidator.isValidPlacement(partial, number, row, col)) {
+                        int[][] child = copyOf(partial);
+                        child[row][col] = number;
+                        next.add(child);
+                    }
+                }
+            }
+            if (!expanded) {
+                break;
+            }
+            if (counting) metrics.incrementRecursionDepth();
+            frontier = next;
+        }
+        return frontier;
+    }
+
+    private static int firstEmptyCell(int[][] board) {
+        for (int cell = 0; cell < GRID_SIZE * GRID_SIZE; cell++) {
+            if (board[cell / GRID_SIZE][cell % GRID_SIZE] == 0) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    private static int[][] copyOf(int[][] board) {
+        int[][] copy = new int[GRID_SIZE][GRID_SIZE];
+        for (int i = 0; i < GRID_SIZE; i++) {
+            System.arraycopy(board[i], 0, copy[i], 0, GRID_SIZE);
+        }
+        return copy;
+    }
+
+    /**
+     * State shared by the tasks of one solve.
+     */
+    private static class SearchContext {
+        final CancellationToken searchToken;
+        final CancellationToken stop; // cancelled by the first task that finds a solution
+        volatile int[][] solution;
+
+        SearchContext(CancellationToken searchToken) {
+            this.searchToken = searchToken;
+            this.stop = searchToken.child();
+        }
+
+        synchronized boolean offer(int[][] board) {
+            if (solution != null) {
+                return false;
+            }
+            solution = board;
+            stop.cancel();
+            return true;
+        }
+    }
+
+    /**
+     * Searches one frontier board with the sequential backtracking algorithm.
+     */
+    private class SubtreeTask extends RecursiveAction {
+        private final SearchContext context;
+        private final int[][] board;
+        private final SudokuMetrics taskMetrics;
+
+        SubtreeTask(SearchContext context, int[][] board, SudokuMetrics taskMetrics) {
+            this.context = context;
+            this.board = board;
+            this.taskMetrics = taskMetrics;
+        }
+
+        @Override
+        protected void compute() {
+            if (context.stop.isStopRequested()) {
+                return;
+            }
+            taskMetrics.resumeAllocationTracking();
+            try {
+                CancellationToken.Poller poller = new CancellationToken.Poller(context.stop);
+                if (BacktrackingSudokuSolver.solveBoard(board, taskMetrics, poller)) {
+                    context.offer(board);
+                }
+            } finally {
+                taskMetrics.pauseAllocationTracking();
+            }
+        }
+    }
+
+    /**
+     * Stops the worker threads of this solver's pool. A solve that is still running finishes first;
+     * the solver cannot be used afterwards.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Gets the metrics object.
+     *
+     * @return The metrics object
+     */
+    @Override
+    public SudokuMetrics getMetrics() {
+        return metrics;
+    }
+}
@@ -0,0 +1,346 @@
+package com.rmit.sudoku.solver;
+
+import com.rmit.sudoku.metrics.SudokuMetrics;
+import com.rmit.sudoku.solver.dlx.SudokuDLXSolver;
+import com.rmit.sudoku.solver.propagation.PropagatingSudokuSolver;
+import com.rmit.sudoku.validator.SudokuValidator;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of the SudokuSolver interface that races several engines on the same puzzle.
+ * <p>
+ * Every configured engine is started concurrently on its own copy of the board. The first engine
+ * that finishes with a verified solution (or proves that no solution exists) wins; the others are
+ * cancelled through a shared token, a child of the caller's token, that they poll in their search
+ * loops. Each race creates fresh engine instances, so losers that are still unwinding never share
+ * state with the next race.
+ * <p>
+ * The engines run on a bounded pool with one thread per engine for each race allowed to run at
+ * once, by default one race per available processor. Losers only notice the cancellation at their
+ * next poll, so under load further engines wait in the pool's queue instead of piling up threads;
+ * an engine whose race was decided while it waited stops at its first poll.
+ * <p>
+ * Engines track {@link SudokuMetrics.Mode#COUNTERS} by default: memory measured while several
+ * engines run at once says little, and the garbage collection it needs would delay the race.
+ */
+public class PortfolioSudokuSolver implements SudokuSolver {
+
+    private static final int GRID_SIZE = 9;
+    private static final long DEFAULT_TIMEOUT_MS = 120000; // 2 minutes
+    private static final long CANCEL_POLL_MS = 10;
+    private static final long IDLE_THREAD_KEEP_ALIVE_SECONDS = 60;
+
+    private final Map<String, Supplier<SudokuSolver>> engines;
+    private final boolean printMetrics;
+    private final ExecutorService executor;
+    private volatile SudokuMetrics.Mode metricsMode = SudokuMetrics.Mode.COUNTERS;
+    private volatile Result lastResult;
+
+    /**
+     * Creates a new PortfolioSudokuSolver that races the default engines.
+     */
+    public PortfolioSudokuSolver() {
+        this(DEFAULT_TIMEOUT_MS, true);
+    }
+
+    /**
+     * Creates a new PortfolioSudokuSolver that races the default engines with a custom timeout
+     * and metrics printing option.
+     *
+     * @param timeoutMs The timeout in milliseconds for each engine
+     * @param printMetrics Whether to print the winner's metrics after solving
+     */
+    public PortfolioSudokuSolver(long timeoutMs, boolean printMetrics) {
+        this(defaultEngines(timeoutMs), printMetrics);
+    }
+
+    /**
+     * Creates a new PortfolioSudokuSolver that races the given engines.
+     *
+     * @param engines Factories for the engines to race, keyed by display name; a new engine
+     *                is created for every race
+     * @param printMetrics Whether to print the winner's metrics after solving
+     */
+    public PortfolioSudokuSolver(Map<String, Supplier<SudokuSolver>> engines, boolean printMetrics) {
+        this(engines, printMetrics, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new PortfolioSudokuSolver that races the given engines on a pool sized for a
+     * number of concurrent races.
+     *
+     * @param engines Factories for the engines to race, keyed by display name; a new engine
+     *                is created for every race
+     * @param printMetrics Whether to print the winner's metrics after solving
+     * @param maxConcurrentRaces The number of races whose engines may all run at once, usually
+     *                           the number of threads that call {@link #race}
+     */
+    public PortfolioSudokuSolver(Map<String, Supplier<SudokuSolver>> engines, boolean printMetrics,
+                                 int maxConcurrentRaces) {
+        if (engines == null || engines.isEmpty()) {
+            throw new IllegalArgumentException("At least one engine is required");
+        }
+        this.engines = Collections.unmodifiableMap(new LinkedHashMap<>(engines));
+        this.printMetrics = printMetrics;
+
+        int threads = engines.size() * Math.max(1, maxConcurrentRaces);
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads,
+                IDLE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "sudoku-portfolio-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true); // Idle threads retire between bursts of races
+        this.executor = pool;
+    }
+
+    /**
+     * Gets the engines raced by default: backtracking, bitmask, Dancing Links and constraint propagation.
+     *
+     * @param timeoutMs The timeout in milliseconds for each engine
+     * @return Engine factories keyed by display name
+     */
+    public static Map<String, Supplier<SudokuSolver>> defaultEngines(long timeoutMs) {
+        Map<String, Supplier<SudokuSolver>> engines = new LinkedHashMap<>();
+        engines.put("Backtracking", () -> new BacktrackingSudokuSolver(timeoutMs, false));
+        engines.put("Bitmask backtracking", () -> new BitmaskSudokuSolver(timeoutMs, false));
+        engines.put("Dancing Links", () -> new SudokuDLXSolver(timeoutMs, false));
+        engines.put("Constraint propagation", () -> new PropagatingSudokuSolver(null, timeoutMs, false));
+        return engines;
+    }
+
+    @Override
+    public int[][] solve(int[][] board) throws SudokuTimeoutException {
+        return solve(board, null);
+    }
+
+    @Override
+    public int[][] solve(int[][] board, CancellationToken token) throws SudokuTimeoutException {
+        return race(board, token).getSolution();
+    }
+
+    /**
+     * Races the engines on a puzzle and returns the winner's result.
+     * Unlike {@link #getLastResult()}, the returned result is private to the caller, so this
+     * method can be used by several threads at once.
+     *
+     * @param board 2D array representing the Sudoku puzzle (0 for empty cells, 1-9 for filled cells)
+     * @return The winning engine, its solution (null if no solution exists) and its metrics
+     * @throws SudokuTimeoutException if every engine fails, e.g. by exceeding the time limit
+     */
+    public Result race(int[][] board) throws SudokuTimeoutException {
+        return race(board, null);
+    }
+
+    /**
+     * Races the engines on a puzzle, giving up once {@code token} is cancelled or expires.
+     *
+     * @param board 2D array representing the Sudoku puzzle (0 for empty cells, 1-9 for filled cells)
+     * @param token The caller's cancellation token, or null
+     * @return The winning engine, its solution (null if no solution exists) and its metrics
+     * @throws SudokuCancelledException if the race was cancelled before any engine finished
+     * @throws SudokuTimeoutException if the token expires or every engine fails, e.g. by exceeding the time limit
+     */
+    public Result race(int[][] board, CancellationToken token) throws SudokuTimeoutException {
+        // Validate input
+        if (board == null || board.length != GRID_SIZE) {
+            throw new IllegalArgumentException("Board must be a 9x9 grid");
+        }
+
+        for (int i = 0; i < GRID_SIZE; i++) {
+            if (board[i] == null || board[i].length != GRID_SIZE) {
+                throw new IllegalArgumentException("Board must be a 9x9 grid");
+            }
+
+            for (int j = 0; j < GRID_SIZE; j++) {
+                if (board[i][j] < 0 || board[i][j] > 9) {
+                    throw new IllegalArgumentException("Board values must be between 0 and 9");
+                }
+            }
+        }
+
+        if (!SudokuValidator.isValidBoard(board)) {
+            throw new IllegalArgumentException("Board contains invalid values");
+        }
+
+        // Token shared by the engines of this race; cancelled as soon as the race is decided
+        CancellationToken raceOver = token != null ? token.child() : new CancellationToken();
+        CompletionService<Result> completion = new ExecutorCompletionService<>(executor);
+        for (Map.Entry<String, Supplier<SudokuSolver>> entry : engines.entrySet()) {
+            String name = entry.getKey();
+            Supplier<SudokuSolver> factory = entry.getValue();
+            SudokuMetrics.Mode mode = metricsMode;
+            int[][] copy = copyOf(board);
+            completion.submit(() -> {
+                SudokuSolver engine = factory.get();
+                engine.setMetricsMode(mode);
+                int[][] solution = engine.solve(copy, raceOver);
+                return new Result(name, solution, engine.getMetrics());
+            });
+        }
+
+        Throwable failure = null;
+        try {
+            int pending = engines.size();
+            while (pending > 0) {
+                if (token != null && token.isStopRequested()) {
+                    token.throwIfStopped();
+                }
+
+                Future<Result> finished = completion.poll(CANCEL_POLL_MS, TimeUnit.MILLISECONDS);
+                if (finished == null) {
+                    continue;
+                }
+                pending--;
+
+                Result result;
+                try {
+                    result = finished.get();
+                } catch (ExecutionException e) {
+                    failure = e.getCause();
+                    continue; // Let the remaining engines finish the race
+                }
+
+                // An engine that returns null has exhausted its search, which proves there is no solution
+                if (result.getSolution() == null || isSolutionOf(result.getSolution(), board)) {
+                    lastResult = result;
+                    if (printMetrics) {
+                        System.out.println("\nPortfolio winner: " + result.getEngineName());
+                        if (result.getMetrics() != null) {
+                            result.getMetrics().printMetrics();
+                        }
+                    }
+                    return result;
+                }
+                failure = new IllegalStateException(result.getEngineName() + " returned an invalid solution");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SudokuCancelledException("Solving was interrupted");
+        } finally {
+            // Cancel the engines that are still running
+            raceOver.cancel();
+        }
+
+        if (failure instanceof SudokuTimeoutException) {
+            throw (SudokuTimeoutException) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        throw new SudokuTimeoutException("No solver finished: " + failure);
+    }
+
+    /**
+     * Checks that a board is completely filled, valid, and keeps every given of the puzzle.
+     */
+    private static boolean isSolutionOf(int[][] solution, int[][] puzzle) {
+        if (solution.length != GRID_SIZE) {
+            return false;
+        }
+        for (int i = 0; i < GRID_SIZE; i++) {
+            if (solution[i] == null || solution[i].length != GRID_SIZE) {
+                return false;
+            }
+            for (int j = 0; j < GRID_SIZE; j++) {
+                if (solution[i][j] < 1 || solution[i][j] > 9) {
+                    return false;
+                }
+                if (puzzle[i][j] != 0 && puzzle[i][j] != solution[i][j]) {
+                    return false;
+                }
+            }
+        }
+        return SudokuValidator.isValidBoard(solution);
+    }
+
+    private static int[][] copyOf(int[][] board) {
+        int[][] copy = new int[GRID_SIZE][GRID_SIZE];
+        for (int i = 0; i < GRID_SIZE; i++) {
+            System.arraycopy(board[i], 0, copy[i], 0, GRID_SIZE);
+        }
+        return copy;
+    }
+
+    /**
+     * Stops the worker threads. Engines that are still running are not interrupted.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Gets the result of the last race run by {@link #solve(int[][])} or {@link #race(int[][])}.
+     *
+     * @return The last result, or null if no race has finished yet
+     */
+    public Result getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * Gets the name of the engine that won the last race.
+     *
+     * @return The winner's name, or null if no race has finished yet
+     */
+    public String getLastWinner() {
+        Result result = lastResult;
+        return result != null ? result.getEngineName() : null;
+    }
+
+    /**
+     * Gets the metrics of the engine that won the last race.
+     *
+     * @return The winner's metrics, or null if no race has finished yet
+     */
+    @Override
+    public SudokuMetrics getMetrics() {
+        Result result = lastResult;
+        return result != null ? result.getMetrics() : null;
+    }
+
+    /**
+     * Sets how much the engines of later races track.
+     *
+     * @param mode The metrics mode
+     */
+    @Override
+    public void setMetricsMode(SudokuMetrics.Mode mode) {
+        this.metricsMode = mode;
+    }
+
+    /**
+     * Outcome of one race: the winner's solution and metrics, and which engine won.
+     */
+    public static class Result extends SolveResult {
+        private final String engineName;
+
+        Result(String engineName, int[][] solution, SudokuMetrics metrics) {
+            super(solution, metrics);
+            this.engineName = engineName;
+        }
+
+        /**
+         * Gets the name of the winning engine.
+         *
+         * @return The engine name
+         */
+        public String getEngineName() {
+            return engineName;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.rmit.sudoku.solver;
+
+import com.rmit.sudoku.metrics.SudokuMetrics;
+
+/**
+ * Outcome of one solve: the solution together with the metrics of that solve only.
+ * <p>
+ * Unlike {@link SudokuSolver#getMetrics()}, which a solver overwrites on its next solve, a
+ * result belongs to the caller that asked for it, so it can be read at any time and from any
+ * thread.
+ */
+public class SolveResult {
+    private final int[][] solution;
+    private final SudokuMetrics metrics;
+
+    /**
+     * Creates a new SolveResult.
+     *
+     * @param solution The solved board, or null if no solution exists
+     * @param metrics The metrics of this solve, or null if the solver does not track any
+     */
+    public SolveResult(int[][] solution, SudokuMetrics metrics) {
+        this.solution = solution;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Gets the solution.
+     *
+     * @return The solved board, or null if no solution exists
+     */
+    public int[][] getSolution() {
+        return solution;
+    }
+
+    /**
+     * Gets the metrics of this solve.
+     *
+     * @return The metrics, or null if the solver does not track any
+     */
+    public SudokuMetrics getMetrics() {
+        return metrics;
+    }
+}
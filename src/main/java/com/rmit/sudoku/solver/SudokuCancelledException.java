@@ -0,0 +1,12 @@
+package com.rmit.sudoku.solver;
+
+/**
+ * Exception thrown when a Sudoku solve is cancelled before it finishes, e.g. because
+ * another solver racing on the same puzzle has already found the solution.
+ */
+public class SudokuCancelledException extends SudokuTimeoutException {
+
+    public SudokuCancelledException(String message) {
+        super(message);
+    }
+}
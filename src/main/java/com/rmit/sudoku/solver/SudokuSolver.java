@@ -1,5 +1,8 @@
 package com.rmit.sudoku.solver;
 
+import com.rmit.sudoku.metrics.SudokuMetrics;
+import com.rmit.sudoku.model.CompactBoard;
+
 /**
  * Interface for Sudoku solving algorithms.
  */
@@ -14,4 +17,103 @@ public interface SudokuSolver {
      * @throws IllegalArgumentException if the input board is invalid
      */
     int[][] solve(int[][] board) throws SudokuTimeoutException;
+
+    /**
+     * Solves a Sudoku puzzle, giving up once {@code token} is cancelled or its deadline passes.
+     * The solver's own timeout still applies, whichever comes first. Solvers that support
+     * cancellation poll the token in their search loop; the default implementation ignores it.
+     * 
+     * @param board 2D array representing the Sudoku puzzle (0 for empty cells, 1-9 for filled cells)
+     * @param token The caller's cancellation token, or null
+     * @return The solved puzzle as a 2D array with values 1-9, or null if no solution exists
+     * @throws SudokuCancelledException if the token was cancelled before the search finished
+     * @throws SudokuTimeoutException if the puzzle cannot be solved before a deadline
+     * @throws IllegalArgumentException if the input board is invalid
+     */
+    default int[][] solve(int[][] board, CancellationToken token) throws SudokuTimeoutException {
+        return solve(board);
+    }
+
+    /**
+     * Solves a Sudoku puzzle given as a compact board. The input board is not modified.
+     * The default implementation converts to and from {@code int[][]}; solvers that work on
+     * flat cell arrays override it to skip the conversion.
+     * 
+     * @param board The Sudoku puzzle (0 for empty cells, 1-9 for filled cells)
+     * @return The solved puzzle as a new compact board, or null if no solution exists
+     * @throws SudokuTimeoutException if the puzzle cannot be solved within the time limit
+     * @throws IllegalArgumentException if the input board is invalid
+     */
+    default CompactBoard solve(CompactBoard board) throws SudokuTimeoutException {
+        if (board == null) {
+            throw new IllegalArgumentException("Board must be a 9x9 grid");
+        }
+        int[][] solution = solve(board.toArray());
+        return solution != null ? CompactBoard.fromArray(solution) : null;
+    }
+
+    /**
+     * Solves a Sudoku puzzle and returns the solution together with a snapshot of the metrics
+     * of this solve, which later solves do not change.
+     * 
+     * @param board 2D array representing the Sudoku puzzle (0 for empty cells, 1-9 for filled cells)
+     * @return The solution, or a null solution if none exists, and the metrics of this solve
+     * @throws SudokuTimeoutException if the puzzle cannot be solved within the time limit
+     * @throws IllegalArgumentException if the input board is invalid
+     */
+    default SolveResult solveWithMetrics(int[][] board) throws SudokuTimeoutException {
+        return solveWithMetrics(board, null);
+    }
+
+    /**
+     * Solves a Sudoku puzzle like {@link #solveWithMetrics(int[][])}, giving up once {@code token}
+     * is cancelled or its deadline passes. A search that is stopped early throws, with a snapshot
+     * of the metrics gathered so far attached to the exception.
+     * 
+     * @param board 2D array representing the Sudoku puzzle (0 for empty cells, 1-9 for filled cells)
+     * @param token The caller's cancellation token, or null
+     * @return The solution, or a null solution if none exists, and the metrics of this solve
+     * @throws SudokuCancelledException if the token was cancelled before the search finished
+     * @throws SudokuTimeoutException if the puzzle cannot be solved within the time limit
+     * @throws IllegalArgumentException if the input board is invalid
+     * @see SudokuTimeoutException#getPartialMetrics()
+     */
+    default SolveResult solveWithMetrics(int[][] board, CancellationToken token) throws SudokuTimeoutException {
+        int[][] solution;
+        try {
+            solution = solve(board, token);
+        } catch (SudokuTimeoutException e) {
+            SudokuMetrics metrics = getMetrics();
+            if (metrics != null && e.getPartialMetrics() == null) {
+                e.setPartialMetrics(metrics.copy());
+            }
+            throw e;
+        }
+        SudokuMetrics metrics = getMetrics();
+        return new SolveResult(solution, metrics != null ? metrics.copy() : null);
+    }
+
+    /**
+     * Gets the metrics from the last solve operation.
+     * 
+     * @return The metrics, or null if this solver does not track any
+     */
+    default SudokuMetrics getMetrics() {
+        return null;
+    }
+
+    /**
+     * Sets how much this solver tracks from the next solve on. Production callers use
+     * {@link SudokuMetrics.Mode#OFF} or {@link SudokuMetrics.Mode#COUNTERS}; the default
+     * {@link SudokuMetrics.Mode#FULL} is meant for comparing solvers. The default
+     * implementation sets the mode of {@link #getMetrics()}, if any.
+     * 
+     * @param mode The metrics mode
+     */
+    default void setMetricsMode(SudokuMetrics.Mode mode) {
+        SudokuMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.setMode(mode);
+        }
+    }
 }
@@ -1,9 +1,14 @@
 package com.rmit.sudoku.solver;
 
+import com.rmit.sudoku.metrics.SudokuMetrics;
+
 /**
  * Exception thrown when a Sudoku puzzle cannot be solved within the time limit.
  */
 public class SudokuTimeoutException extends Exception {
+
+    // SudokuMetrics is not serializable; a deserialized exception carries no partial metrics
+    private transient SudokuMetrics partialMetrics;
     
     public SudokuTimeoutException(String message) {
         super(message);
@@ -12,4 +17,23 @@ public class SudokuTimeoutException extends Exception {
     public SudokuTimeoutException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    /**
+     * Gets the metrics the solver had gathered when it stopped.
+     *
+     * @return The metrics of the unfinished search, or null if none were attached or the
+     *         exception was deserialized
+     */
+    public SudokuMetrics getPartialMetrics() {
+        return partialMetrics;
+    }
+
+    /**
+     * Attaches the metrics the solver had gathered when it stopped.
+     *
+     * @param partialMetrics The metrics of the unfinished search
+     */
+    public void setPartialMetrics(SudokuMetrics partialMetrics) {
+        this.partialMetrics = partialMetrics;
+    }
 }
@@ -0,0 +1,450 @@
+package com.rmit.sudoku.solver.dlx;
+
+import com.rmit.sudoku.metrics.SudokuMetrics;
+import com.rmit.sudoku.solver.CancellationToken;
+import com.rmit.sudoku.solver.SudokuTimeoutException;
+
+import java.util.Arrays;
+
+/**
+ * Array-backed implementation of Donald Knuth's Dancing Links algorithm.
+ * <p>
+ * Instead of one object per matrix entry, the left/right/up/down/column links of every
+ * node live in flat {@code int[]} arrays indexed by node id. Index 0 is the root header,
+ * indices 1..columns are the column headers and the remaining indices are the matrix
+ * entries. The partial solution is kept in a fixed-size int stack, so the search itself
+ * does not allocate.
+ * <p>
+ * A fully built instance can serve as an immutable template: {@link #ArrayDancingLinks(ArrayDancingLinks)}
+ * creates a workspace of the same shape, {@link #copyFrom(ArrayDancingLinks)} restores it with bulk
+ * array copies, and {@link #selectRow(int)} fixes rows (such as Sudoku givens) before the search.
+ */
+public class ArrayDancingLinks {
+
+    private static final boolean VERBOSE = false;
+    private static final int ROOT = 0;
+
+    /** Solution limit meaning "enumerate every solution". */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private final int columnCount;
+    private final int[] left;
+    private final int[] right;
+    private final int[] up;
+    private final int[] down;
+    private final int[] column;
+    private final int[] rowId;
+    private final int[] size;
+    private final int[] rowNode;     // first node of each row id, -1 if the row is absent (shared, read-only)
+
+    private final int[] answer;      // node ids of the chosen rows, one per search level
+    private final int[] answerRows;  // row ids handed to the solution handler
+
+    private int selectedRows = 0;    // rows fixed by selectRow, kept at the bottom of the answer stack
+    private int solutions = 0;
+    private int updates = 0;
+    private int solutionLimit = UNLIMITED;
+    private boolean reportSolutions = true;
+    private int maxLevel = 0;        // deepest search level below selectedRows, for the metrics
+    private boolean trackDepth = false;
+    private boolean sampleMemory = false;
+    private RowSolutionHandler handler;
+    private SudokuMetrics metrics;
+    private CancellationToken token;
+    private CancellationToken.Poller poller;
+
+    /**
+     * Creates a new ArrayDancingLinks solver for the given exact cover grid.
+     * The id reported for each matrix row is its index in {@code grid}.
+     *
+     * @param grid    The exact cover grid (1s and 0s)
+     * @param h       The solution handler
+     * @param metrics The metrics tracker (can be null)
+     */
+    public ArrayDancingLinks(int[][] grid, RowSolutionHandler h, SudokuMetrics metrics) {
+        this(ExactCoverMatrix.fromDense(grid), h, metrics);
+    }
+
+    /**
+     * Creates a new ArrayDancingLinks solver for the given sparse exact cover matrix.
+     *
+     * @param matrix  The sparse exact cover matrix
+     * @param h       The solution handler
+     * @param metrics The metrics tracker (can be null)
+     */
+    public ArrayDancingLinks(ExactCoverMatrix matrix, RowSolutionHandler h, SudokuMetrics metrics) {
+        this.columnCount = matrix.getColumnCount();
+        this.handler = h;
+        this.metrics = metrics;
+
+        int capacity = columnCount + 1 + matrix.getEntryCount();
+        left = new int[capacity];
+        right = new int[capacity];
+        up = new int[capacity];
+        down = new int[capacity];
+        column = new int[capacity];
+        rowId = new int[capacity];
+        size = new int[columnCount + 1];
+        answer = new int[columnCount];
+        answerRows = new int[columnCount];
+
+        int maxRowId = -1;
+        for (int i = 0; i < matrix.getRowCount(); i++) {
+            maxRowId = Math.max(maxRowId, matrix.getRowId(i));
+        }
+        rowNode = new int[maxRowId + 1];
+        Arrays.fill(rowNode, -1);
+
+        initHeaders();
+
+        int next = columnCount + 1;
+        for (int i = 0; i < matrix.getRowCount(); i++) {
+            int first = next;
+            for (int e = matrix.getRowStart(i); e < matrix.getRowEnd(i); e++) {
+                appendNode(next, matrix.getColumn(e) + 1, matrix.getRowId(i), next == first ? -1 : first);
+                next++;
+            }
+            if (next != first && matrix.getRowId(i) >= 0) {
+                rowNode[matrix.getRowId(i)] = first;
+            }
+        }
+    }
+
+    /**
+     * Creates a workspace with the same shape and links as {@code template}.
+     * The handler and metrics are not copied.
+     *
+     * @param template The template to copy
+     */
+    public ArrayDancingLinks(ArrayDancingLinks template) {
+        this.columnCount = template.columnCount;
+        int capacity = template.left.length;
+        left = new int[capacity];
+        right = new int[capacity];
+        up = new int[capacity];
+        down = new int[capacity];
+        column = new int[capacity];
+        rowId = new int[capacity];
+        size = new int[columnCount + 1];
+        answer = new int[columnCount];
+        answerRows = new int[columnCount];
+        rowNode = template.rowNode;
+        copyFrom(template);
+    }
+
+    /**
+     * Restores this workspace to the state of {@code template} using bulk array copies.
+     * The template must have been built from the same matrix or be a workspace created from it.
+     *
+     * @param template The template to copy
+     */
+    public void copyFrom(ArrayDancingLinks template) {
+        if (template.rowNode != rowNode) {
+            throw new IllegalArgumentException("Template has a different shape");
+        }
+        int capacity = left.length;
+        System.arraycopy(template.left, 0, left, 0, capacity);
+        System.arraycopy(template.right, 0, right, 0, capacity);
+        System.arraycopy(template.up, 0, up, 0, capacity);
+        System.arraycopy(template.down, 0, down, 0, capacity);
+        System.arraycopy(template.column, 0, column, 0, capacity);
+        System.arraycopy(template.rowId, 0, rowId, 0, capacity);
+        System.arraycopy(template.size, 0, size, 0, size.length);
+        System.arraycopy(template.answer, 0, answer, 0, template.selectedRows);
+        selectedRows = template.selectedRows;
+    }
+
+    /**
+     * Fixes a row as part of every solution by covering all of its columns,
+     * exactly as the search does when it chooses the row.
+     *
+     * @param id The id of the row to select
+     * @return false if the row does not exist or conflicts with an already selected row
+     */
+    public boolean selectRow(int id) {
+        if (id < 0 || id >= rowNode.length || rowNode[id] < 0) {
+            return false;
+        }
+        int node = rowNode[id];
+
+        // A row that shares a column with a selected row has one of its columns covered
+        int j = node;
+        do {
+            int c = column[j];
+            if (right[left[c]] != c) {
+                return false;
+            }
+            j = right[j];
+        } while (j != node);
+
+        cover(column[node]);
+        for (j = right[node]; j != node; j = right[j]) {
+            cover(column[j]);
+        }
+        answer[selectedRows++] = node;
+        return true;
+    }
+
+    /**
+     * Checks whether every column is covered, i.e. the selected rows already form a solution.
+     */
+    public boolean isComplete() {
+        return right[ROOT] == ROOT;
+    }
+
+    /**
+     * Gets the ids of the rows in the column the search would branch on next
+     * (the column with the fewest rows). Used to split the search tree into subproblems.
+     *
+     * @return The row ids, empty if the current state is a dead end or already complete
+     */
+    public int[] branchRows() {
+        if (isComplete()) {
+            return new int[0];
+        }
+        int c = selectColumn();
+        int[] rows = new int[size[c]];
+        int n = 0;
+        for (int r = down[c]; r != c; r = down[r]) {
+            rows[n++] = rowId[r];
+        }
+        return rows;
+    }
+
+    /**
+     * Sets the token that makes the search unwind once it is cancelled or expires, e.g. when
+     * another thread has already found a solution or the caller's deadline has passed. The
+     * token is looked at once every {@link CancellationToken#CHECK_INTERVAL} search nodes.
+     *
+     * @param token The token, or null for a search without cancellation or time limit
+     */
+    public void setCancellationToken(CancellationToken token) {
+        this.token = token;
+    }
+
+    /**
+     * Sets the handler that receives the solutions.
+     */
+    public void setSolutionHandler(RowSolutionHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Sets the metrics tracker (can be null).
+     */
+    public void setMetrics(SudokuMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Links the root and the column headers into a circular list with empty columns.
+     */
+    private void initHeaders() {
+        for (int c = 0; c <= columnCount; c++) {
+            left[c] = c == 0 ? columnCount : c - 1;
+            right[c] = c == columnCount ? 0 : c + 1;
+            up[c] = c;
+            down[c] = c;
+            column[c] = c;
+            rowId[c] = -1;
+        }
+    }
+
+    /**
+     * Appends a node at the bottom of column {@code col} and to the right end of its row.
+     *
+     * @param node  The id of the node to append
+     * @param col   The column header id (1-based)
+     * @param row   The matrix row id reported to the solution handler
+     * @param first The id of the first node of the row, or -1 if this is the first one
+     */
+    private void appendNode(int node, int col, int row, int first) {
+        column[node] = col;
+        rowId[node] = row;
+
+        up[node] = up[col];
+        down[node] = col;
+        down[up[col]] = node;
+        up[col] = node;
+        size[col]++;
+
+        if (first < 0) {
+            left[node] = node;
+            right[node] = node;
+        } else {
+            left[node] = left[first];
+            right[node] = first;
+            right[left[first]] = node;
+            left[first] = node;
+        }
+    }
+
+    /**
+     * Runs the solver to find all solutions. A cancelled search returns quietly with the
+     * solutions found so far; an expired one throws.
+     *
+     * @throws SudokuTimeoutException if the deadline of the cancellation token has passed
+     */
+    public void runSolver() throws SudokuTimeoutException {
+        runSolver(UNLIMITED);
+    }
+
+    /**
+     * Runs the solver until {@code maxSolutions} solutions have been reported to the handler.
+     *
+     * @param maxSolutions The number of solutions after which the search stops, or
+     *                     {@link #UNLIMITED} to enumerate all of them
+     */
+    public void runSolver(int maxSolutions) throws SudokuTimeoutException {
+        run(maxSolutions, true);
+    }
+
+    /**
+     * Counts solutions without reporting them to the handler, stopping once {@code limit} is reached.
+     *
+     * @param limit The count at which the search stops, or {@link #UNLIMITED}
+     * @return The number of solutions found, at most {@code limit}
+     */
+    public int countSolutions(int limit) throws SudokuTimeoutException {
+        run(limit, false);
+        return solutions;
+    }
+
+    private void run(int limit, boolean report) throws SudokuTimeoutException {
+        solutions = 0;
+        updates = 0;
+        solutionLimit = limit <= 0 ? UNLIMITED : limit;
+        reportSolutions = report;
+        poller = new CancellationToken.Poller(token);
+        maxLevel = 0;
+        trackDepth = metrics != null && metrics.isCounting();
+        sampleMemory = metrics != null && metrics.isSamplingHeap();
+        try {
+            search(selectedRows);
+        } finally {
+            // Updates and depth are counted in plain fields and handed over once per run
+            if (trackDepth) {
+                metrics.addOperationCount(updates);
+                metrics.recordNestedDepth(maxLevel);
+            }
+        }
+        if (VERBOSE) showInfo();
+
+        if (poller.isStopped()) {
+            token.throwIfExpired();
+        }
+    }
+
+    /**
+     * The heart of the algorithm - recursively searches for solutions.
+     *
+     * @return true once the solution limit has been reached and the search should stop
+     */
+    private boolean search(int k) {
+        if (trackDepth && k - selectedRows >= maxLevel) {
+            maxLevel = k - selectedRows + 1;
+        }
+        if (sampleMemory) {
+            metrics.updatePeakMemoryUsage();
+        }
+
+        // Unwind if another search has already finished the job, or the caller cancelled or ran out of time
+        if (poller.shouldStop()) {
+            return true;
+        }
+
+        if (right[ROOT] == ROOT) { // all columns removed
+            if (reportSolutions) {
+                for (int i = 0; i < k; i++) {
+                    answerRows[i] = rowId[answer[i]];
+                }
+                handler.handleSolution(answerRows, k);
+            }
+            solutions++;
+            return solutions >= solutionLimit;
+        }
+
+        int c = selectColumn();
+        cover(c);
+
+        boolean done = false;
+        for (int r = down[c]; r != c && !done; r = down[r]) {
+            answer[k] = r;
+
+            for (int j = right[r]; j != r; j = right[j]) {
+                cover(column[j]);
+            }
+
+            done = search(k + 1);
+
+            for (int j = left[r]; j != r; j = left[j]) {
+                uncover(column[j]);
+            }
+        }
+        uncover(c);
+        return done;
+    }
+
+    /**
+     * Selects the column with the fewest nodes (most constrained).
+     */
+    private int selectColumn() {
+        int min = Integer.MAX_VALUE;
+        int ret = ROOT;
+        for (int c = right[ROOT]; c != ROOT; c = right[c]) {
+            if (size[c] < min) {
+                min = size[c];
+                ret = c;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Removes column {@code c} from the header list and all rows intersecting it from the other columns.
+     */
+    private void cover(int c) {
+        right[left[c]] = right[c];
+        left[right[c]] = left[c];
+        updates++;
+        for (int i = down[c]; i != c; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                down[up[j]] = down[j];
+                up[down[j]] = up[j];
+                size[column[j]]--;
+                updates++;
+            }
+        }
+    }
+
+    /**
+     * Exactly reverses {@link #cover(int)}.
+     */
+    private void uncover(int c) {
+        for (int i = up[c]; i != c; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                size[column[j]]++;
+                down[up[j]] = j;
+                up[down[j]] = j;
+                updates++;
+            }
+        }
+        right[left[c]] = c;
+        left[right[c]] = c;
+        updates++;
+    }
+
+    /**
+     * Shows information about the solving process.
+     */
+    private void showInfo() {
+        System.out.println("Number of updates: " + updates);
+    }
+
+    /**
+     * Gets the number of solutions found.
+     */
+    public int getSolutionCount() {
+        return solutions;
+    }
+}
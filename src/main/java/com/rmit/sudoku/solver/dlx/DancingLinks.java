@@ -1,6 +1,7 @@
 package com.rmit.sudoku.solver.dlx;
 import java.util.*;
 import com.rmit.sudoku.metrics.SudokuMetrics;
+import com.rmit.sudoku.solver.CancellationToken;
 import com.rmit.sudoku.solver.SudokuTimeoutException;
 
 /**
@@ -13,9 +14,16 @@ public class DancingLinks {
     private ColumnNode header;
     private int solutions = 0;
     private int updates = 0;
+    private int solutionLimit = ArrayDancingLinks.UNLIMITED;
+    private boolean reportSolutions = true;
     private SolutionHandler handler;
     private List<DancingNode> answer;
+    private int maxLevel = 0;        // deepest search level, for the metrics
+    private boolean trackDepth = false;
+    private boolean sampleMemory = false;
     private SudokuMetrics metrics;
+    private CancellationToken token;
+    private CancellationToken.Poller poller;
 
     /**
      * A node in the Dancing Links matrix.
@@ -46,26 +54,22 @@ public class DancingLinks {
             this.L.R = this.R;
             this.R.L = this.L;
             updates++;
-            if (metrics != null) metrics.incrementOperationCount();
         }
 
         void relinkLR() {
             this.L.R = this.R.L = this;
             updates++;
-            if (metrics != null) metrics.incrementOperationCount();
         }
 
         void unlinkUD() {
             this.U.D = this.D;
             this.D.U = this.U;
             updates++;
-            if (metrics != null) metrics.incrementOperationCount();
         }
 
         void relinkUD() {
             this.U.D = this.D.U = this;
             updates++;
-            if (metrics != null) metrics.incrementOperationCount();
         }
 
         public DancingNode() {
@@ -129,28 +133,100 @@ public class DancingLinks {
     }
 
     /**
-     * Runs the solver to find all solutions.
+     * Creates a new DancingLinks solver for the given sparse exact cover matrix.
+     *
+     * @param matrix  The sparse exact cover matrix
+     * @param h       The solution handler
+     * @param metrics The metrics tracker (can be null)
+     */
+    public DancingLinks(ExactCoverMatrix matrix, SolutionHandler h, SudokuMetrics metrics) {
+        header = makeDLXBoard(matrix);
+        handler = h;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the token that makes the search unwind once it is cancelled or expires. The token is
+     * looked at once every {@link CancellationToken#CHECK_INTERVAL} search nodes.
+     *
+     * @param token The token, or null for a search without cancellation or time limit
+     */
+    public void setCancellationToken(CancellationToken token) {
+        this.token = token;
+    }
+
+    /**
+     * Runs the solver to find all solutions. A cancelled search returns quietly with the
+     * solutions found so far; an expired one throws.
+     *
+     * @throws SudokuTimeoutException if the deadline of the cancellation token has passed
      */
     public void runSolver() throws SudokuTimeoutException {
+        runSolver(ArrayDancingLinks.UNLIMITED);
+    }
+
+    /**
+     * Runs the solver until {@code maxSolutions} solutions have been reported to the handler.
+     *
+     * @param maxSolutions The number of solutions after which the search stops
+     */
+    public void runSolver(int maxSolutions) throws SudokuTimeoutException {
+        run(maxSolutions, true);
+    }
+
+    /**
+     * Counts solutions without reporting them to the handler, stopping once {@code limit} is reached.
+     *
+     * @param limit The count at which the search stops
+     * @return The number of solutions found, at most {@code limit}
+     */
+    public int countSolutions(int limit) throws SudokuTimeoutException {
+        run(limit, false);
+        return solutions;
+    }
+
+    private void run(int limit, boolean report) throws SudokuTimeoutException {
         solutions = 0;
         updates = 0;
+        solutionLimit = limit <= 0 ? ArrayDancingLinks.UNLIMITED : limit;
+        reportSolutions = report;
         answer = new LinkedList<>();
-        search(0);
+        poller = new CancellationToken.Poller(token);
+        maxLevel = 0;
+        trackDepth = metrics != null && metrics.isCounting();
+        sampleMemory = metrics != null && metrics.isSamplingHeap();
+        try {
+            search(0);
+        } finally {
+            // Updates and depth are counted in plain fields and handed over once per run
+            if (trackDepth) {
+                metrics.addOperationCount(updates);
+                metrics.recordNestedDepth(maxLevel);
+            }
+        }
         if (VERBOSE) showInfo();
+
+        if (poller.isStopped()) {
+            token.throwIfExpired();
+        }
     }
 
     /**
      * The heart of the algorithm - recursively searches for solutions.
+     *
+     * @return true once the solution limit has been reached and the search should stop
      */
-    private void search(int k) throws SudokuTimeoutException {
-        if (metrics != null) {
-            metrics.incrementRecursionDepth();
+    private boolean search(int k) {
+        if (trackDepth && k >= maxLevel) {
+            maxLevel = k + 1;
+        }
+        if (sampleMemory) {
             metrics.updatePeakMemoryUsage();
+        }
 
-            // Check for timeout
-            if (metrics.hasExceededTimeLimit(120_000)) { // 2 minutes timeout
-                throw new SudokuTimeoutException("Solving took longer than 120s");
-            }
+        // Unwind if the caller cancelled or ran out of time
+        if (poller.shouldStop()) {
+            return true;
         }
 
         if (header.R == header) { // all columns removed
@@ -158,26 +234,28 @@ public class DancingLinks {
                 System.out.println("-----------------------------------------");
                 System.out.println("Solution #" + solutions + "\n");
             }
-            handler.handleSolution(answer);
+            if (reportSolutions) {
+                handler.handleSolution(answer);
+            }
             if (VERBOSE) {
                 System.out.println("-----------------------------------------");
             }
             solutions++;
-            if (metrics != null) metrics.decrementRecursionDepth();
-            return;
+            return solutions >= solutionLimit;
         }
 
         ColumnNode c = selectColumnNodeHeuristic();
         c.cover();
 
-        for (DancingNode r = c.D; r != c; r = r.D) {
+        boolean done = false;
+        for (DancingNode r = c.D; r != c && !done; r = r.D) {
             answer.add(r);
 
             for (DancingNode j = r.R; j != r; j = j.R) {
                 j.C.cover();
             }
 
-            search(k + 1);
+            done = search(k + 1);
 
             r = answer.remove(answer.size() - 1);
             c = r.C;
@@ -187,7 +265,7 @@ public class DancingLinks {
             }
         }
         c.uncover();
-        if (metrics != null) metrics.decrementRecursionDepth();
+        return done;
     }
 
     /**
@@ -242,6 +320,40 @@ public class DancingLinks {
         return headerNode;
     }
 
+    /**
+     * Creates the DLX board from a sparse exact cover matrix, touching only its 1-entries.
+     */
+    private ColumnNode makeDLXBoard(ExactCoverMatrix matrix) {
+        final int COLS = matrix.getColumnCount();
+
+        ColumnNode headerNode = new ColumnNode("header");
+        ColumnNode[] columnNodes = new ColumnNode[COLS];
+
+        for (int i = 0; i < COLS; i++) {
+            ColumnNode n = new ColumnNode(Integer.toString(i));
+            columnNodes[i] = n;
+            headerNode = (ColumnNode) headerNode.hookRight(n);
+        }
+        headerNode = headerNode.R.C;
+
+        for (int i = 0; i < matrix.getRowCount(); i++) {
+            DancingNode prev = null;
+            for (int e = matrix.getRowStart(i); e < matrix.getRowEnd(i); e++) {
+                ColumnNode col = columnNodes[matrix.getColumn(e)];
+                DancingNode newNode = new DancingNode(col);
+                if (prev == null)
+                    prev = newNode;
+                col.U.hookDown(newNode);
+                prev = prev.hookRight(newNode);
+                col.size++;
+            }
+        }
+
+        headerNode.size = COLS;
+
+        return headerNode;
+    }
+
     /**
      * Shows information about the solving process.
      */
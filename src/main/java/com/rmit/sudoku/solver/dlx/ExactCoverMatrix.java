@@ -0,0 +1,135 @@
+package com.rmit.sudoku.solver.dlx;
+
+import java.util.Arrays;
+
+/**
+ * Sparse representation of an exact cover matrix.
+ * <p>
+ * Only the 1-entries are stored, row by row: row {@code i} has id {@code rowIds[i]} and
+ * covers the columns {@code columns[rowStart[i]] .. columns[rowStart[i + 1] - 1]}.
+ * Rows are appended with {@link #beginRow(int)} followed by one {@link #addEntry(int)}
+ * per column, which lets callers build the matrix straight from their problem without
+ * materialising the dense 0/1 grid.
+ */
+public class ExactCoverMatrix {
+
+    private final int columnCount;
+    private int rowCount;
+    private int entryCount;
+    private int[] rowIds;
+    private int[] rowStart;
+    private int[] columns;
+
+    /**
+     * Creates an empty matrix.
+     *
+     * @param columnCount   The number of constraint columns
+     * @param rowCapacity   The expected number of rows
+     * @param entryCapacity The expected number of 1-entries
+     */
+    public ExactCoverMatrix(int columnCount, int rowCapacity, int entryCapacity) {
+        this.columnCount = columnCount;
+        this.rowIds = new int[Math.max(rowCapacity, 1)];
+        this.rowStart = new int[Math.max(rowCapacity, 1) + 1];
+        this.columns = new int[Math.max(entryCapacity, 1)];
+    }
+
+    /**
+     * Builds the sparse form of a dense 0/1 grid. The id of each row is its index in the grid.
+     *
+     * @param grid The exact cover grid (1s and 0s)
+     * @return The sparse matrix
+     */
+    public static ExactCoverMatrix fromDense(int[][] grid) {
+        int cols = grid[0].length;
+        ExactCoverMatrix matrix = new ExactCoverMatrix(cols, grid.length, grid.length * 4);
+        for (int i = 0; i < grid.length; i++) {
+            boolean started = false;
+            for (int j = 0; j < cols; j++) {
+                if (grid[i][j] == 1) {
+                    if (!started) {
+                        matrix.beginRow(i);
+                        started = true;
+                    }
+                    matrix.addEntry(j);
+                }
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Starts a new row. Subsequent calls to {@link #addEntry(int)} add its 1-entries.
+     *
+     * @param id The id reported for this row when it is part of a solution
+     */
+    public void beginRow(int id) {
+        if (rowCount == rowIds.length) {
+            rowIds = Arrays.copyOf(rowIds, rowCount * 2);
+            rowStart = Arrays.copyOf(rowStart, rowCount * 2 + 1);
+        }
+        rowIds[rowCount] = id;
+        rowStart[rowCount] = entryCount;
+        rowCount++;
+        rowStart[rowCount] = entryCount;
+    }
+
+    /**
+     * Adds a 1-entry in the given column to the current row.
+     *
+     * @param column The 0-based column index
+     */
+    public void addEntry(int column) {
+        if (rowCount == 0) {
+            throw new IllegalStateException("beginRow must be called before addEntry");
+        }
+        if (column < 0 || column >= columnCount) {
+            throw new IllegalArgumentException("Column " + column + " out of range");
+        }
+        if (entryCount == columns.length) {
+            columns = Arrays.copyOf(columns, entryCount * 2);
+        }
+        columns[entryCount++] = column;
+        rowStart[rowCount] = entryCount;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Gets the id of row {@code row}.
+     */
+    public int getRowId(int row) {
+        return rowIds[row];
+    }
+
+    /**
+     * Gets the index of the first entry of row {@code row}.
+     */
+    public int getRowStart(int row) {
+        return rowStart[row];
+    }
+
+    /**
+     * Gets the index one past the last entry of row {@code row}.
+     */
+    public int getRowEnd(int row) {
+        return rowStart[row + 1];
+    }
+
+    /**
+     * Gets the column of entry {@code entry}.
+     */
+    public int getColumn(int entry) {
+        return columns[entry];
+    }
+}
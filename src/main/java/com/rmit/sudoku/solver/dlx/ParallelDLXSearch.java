@@ -0,0 +1,226 @@
+package com.rmit.sudoku.solver.dlx;
+
+import com.rmit.sudoku.metrics.SudokuMetrics;
+import com.rmit.sudoku.solver.CancellationToken;
+import com.rmit.sudoku.solver.SudokuTimeoutException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel search over an ArrayDancingLinks structure using a ForkJoinPool.
+ * <p>
+ * The top {@code splitDepth} levels of the search tree are expanded into independent subtasks.
+ * Each subtask owns a copy of the link arrays with its branch row selected, so subtasks share no
+ * mutable DLX state and can be stolen by idle workers. The copy is taken when the subtask starts
+ * running (its parent's state stays untouched until all children finish), so only running
+ * subtasks hold link arrays. Below the split depth every subtask runs the ordinary sequential
+ * search. A shared stop token, a child of the caller's token, cancels the remaining subtasks
+ * once the requested number of solutions has been found; in count mode the per-task counts
+ * are summed.
+ */
+public class ParallelDLXSearch {
+
+    /** Default number of search levels expanded into subtasks. */
+    public static final int DEFAULT_SPLIT_DEPTH = 3;
+
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+
+    /**
+     * Creates a parallel search that runs on the given pool.
+     *
+     * @param pool       The pool to schedule subtasks on
+     * @param splitDepth The number of search levels expanded into subtasks
+     */
+    public ParallelDLXSearch(ForkJoinPool pool, int splitDepth) {
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+    }
+
+    /**
+     * Searches from the current state of {@code root}, which is not modified.
+     *
+     * @param root    The prepared workspace (givens already selected)
+     * @param limit   The number of solutions after which the search stops
+     * @param handler The handler for solutions, or null to only count them
+     * @param metrics The metrics of the solve (can be null); subtask counters are merged into it
+     * @return The number of solutions found, at most {@code limit}
+     * @throws SudokuTimeoutException if a subtask exceeds the time limit
+     */
+    public int search(ArrayDancingLinks root, int limit, RowSolutionHandler handler, SudokuMetrics metrics)
+            throws SudokuTimeoutException {
+        return search(root, limit, handler, metrics, null);
+    }
+
+    /**
+     * Searches from the current state of {@code root}, giving up once {@code token} is cancelled or expires.
+     *
+     * @param root      The prepared workspace (givens already selected)
+     * @param limit     The number of solutions after which the search stops
+     * @param handler   The handler for solutions, or null to only count them
+     * @param metrics   The metrics of the solve (can be null); subtask counters are merged into it
+     * @param token     The caller's cancellation token, or null
+     * @return The number of solutions found before the limit or cancellation, at most {@code limit}
+     * @throws SudokuTimeoutException if the deadline of the token passes
+     */
+    public int search(ArrayDancingLinks root, int limit, RowSolutionHandler handler, SudokuMetrics metrics,
+                      CancellationToken token) throws SudokuTimeoutException {
+        SearchContext context = new SearchContext(limit <= 0 ? ArrayDancingLinks.UNLIMITED : limit, handler,
+                token != null ? token.child() : new CancellationToken());
+        SearchTask task = new SearchTask(context, root, -1, 0, metrics != null ? metrics.fork() : null);
+
+        // The subtasks count their own allocations, even if this thread ends up running some of them
+        if (metrics != null) {
+            metrics.pauseAllocationTracking();
+        }
+        try {
+            pool.invoke(task);
+        } finally {
+            // Merge even when the search was stopped, so partial metrics include the subtasks' work
+            if (metrics != null) {
+                metrics.resumeAllocationTracking();
+                metrics.merge(task.metrics);
+            }
+        }
+
+        if (context.timeout != null) {
+            throw context.timeout;
+        }
+        return Math.min(context.found.get(), context.limit);
+    }
+
+    /**
+     * State shared by all subtasks of one search.
+     */
+    private static class SearchContext {
+        final int limit;
+        final RowSolutionHandler handler;
+        final AtomicInteger found = new AtomicInteger();
+        final CancellationToken stop; // child of the caller's token, cancelled once the limit is reached
+        volatile SudokuTimeoutException timeout;
+
+        SearchContext(int limit, RowSolutionHandler handler, CancellationToken stop) {
+            this.limit = limit;
+            this.handler = handler;
+            this.stop = stop;
+        }
+
+        boolean isStopped() {
+            return stop.isStopRequested();
+        }
+    }
+
+    /**
+     * Handler that counts solutions across subtasks, serialises them to the caller's handler
+     * and stops the search at the limit.
+     */
+    private static class SharedHandler implements RowSolutionHandler {
+        private final SearchContext context;
+
+        SharedHandler(SearchContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public void handleSolution(int[] rowIds, int count) {
+            int total = context.found.incrementAndGet();
+            if (total > context.limit) {
+                return; // Another subtask already reached the limit
+            }
+            if (context.handler != null) {
+                synchronized (context) {
+                    context.handler.handleSolution(rowIds, count);
+                }
+            }
+            if (total == context.limit) {
+                context.stop.cancel();
+            }
+        }
+    }
+
+    /**
+     * One node of the split search tree: the parent's state with one more row selected.
+     */
+    private class SearchTask extends RecursiveTask<Void> {
+        private final SearchContext context;
+        private final ArrayDancingLinks parent;
+        private final int row;
+        private final int depth;
+        private final SudokuMetrics metrics;
+
+        SearchTask(SearchContext context, ArrayDancingLinks parent, int row, int depth, SudokuMetrics metrics) {
+            this.context = context;
+            this.parent = parent;
+            this.row = row;
+            this.depth = depth;
+            this.metrics = metrics;
+        }
+
+        @Override
+        protected Void compute() {
+            if (metrics != null) {
+                metrics.resumeAllocationTracking();
+            }
+            try {
+                split();
+            } finally {
+                if (metrics != null) {
+                    metrics.pauseAllocationTracking();
+                }
+            }
+            return null;
+        }
+
+        private void split() {
+            if (context.isStopped()) {
+                return;
+            }
+            ArrayDancingLinks state = new ArrayDancingLinks(parent);
+            if (row >= 0 && !state.selectRow(row)) {
+                return;
+            }
+            if (depth >= splitDepth || state.isComplete()) {
+                runSequential(state);
+                return;
+            }
+
+            int[] rows = state.branchRows();
+            if (metrics != null) {
+                metrics.incrementRecursionDepth();
+            }
+            List<SearchTask> subtasks = new ArrayList<>(rows.length);
+            for (int branchRow : rows) {
+                subtasks.add(new SearchTask(context, state, branchRow, depth + 1,
+                        metrics != null ? metrics.fork() : null));
+            }
+            if (metrics != null) {
+                metrics.pauseAllocationTracking();
+            }
+            invokeAll(subtasks);
+
+            if (metrics != null) {
+                metrics.resumeAllocationTracking();
+                for (SearchTask subtask : subtasks) {
+                    metrics.merge(subtask.metrics);
+                }
+                metrics.decrementRecursionDepth();
+            }
+        }
+
+        private void runSequential(ArrayDancingLinks state) {
+            state.setMetrics(metrics);
+            state.setCancellationToken(context.stop);
+            state.setSolutionHandler(new SharedHandler(context));
+            try {
+                state.runSolver(context.limit);
+            } catch (SudokuTimeoutException e) {
+                context.timeout = e;
+                context.stop.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.rmit.sudoku.solver.dlx;
+
+/**
+ * Interface for handling solutions found by the ArrayDancingLinks algorithm.
+ * Solutions are reported as matrix row ids rather than node objects, so no
+ * per-solution allocation is needed.
+ */
+public interface RowSolutionHandler {
+    /**
+     * Called when a solution is found.
+     *
+     * @param rowIds The ids of the matrix rows that form the solution. The array is
+     *               reused by the solver, so it must not be kept after this call returns.
+     * @param count  The number of valid entries in {@code rowIds}
+     */
+    void handleSolution(int[] rowIds, int count);
+}
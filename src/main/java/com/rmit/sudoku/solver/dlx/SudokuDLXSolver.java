@@ -1,26 +1,39 @@
 package com.rmit.sudoku.solver.dlx;
 
 import com.rmit.sudoku.metrics.SudokuMetrics;
+import com.rmit.sudoku.model.CompactBoard;
+import com.rmit.sudoku.solver.CancellationToken;
 import com.rmit.sudoku.solver.SudokuSolver;
 import com.rmit.sudoku.solver.SudokuTimeoutException;
-import java.util.List;
+
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Implementation of the SudokuSolver interface using the Dancing Links (DLX) algorithm.
  * This solver formulates Sudoku as an exact cover problem and solves it efficiently.
+ * <p>
+ * A parallel solver owns a ForkJoinPool; call {@link #shutdown()} once it is no longer needed.
  */
 public class SudokuDLXSolver implements SudokuSolver {
 
     private static final int GRID_SIZE = 9;   // grid size
     private static final int BOX_SIZE = 3;   // box size
-    private static final int ROWS = GRID_SIZE * GRID_SIZE * GRID_SIZE;  // 729
-    private static final int COLS = GRID_SIZE * GRID_SIZE * 4;          // 324
 
     private static final long DEFAULT_TIMEOUT_MS = 120_000;  // 2 minutes
 
+    /** Exact cover structure of the empty grid, built once and never searched directly. */
+    private static final ArrayDancingLinks TEMPLATE =
+            new ArrayDancingLinks(SudokuExactCover.build(new int[GRID_SIZE][GRID_SIZE]), null, null);
+
+    /** Per-thread copy of the template that each solve restores and searches. */
+    private static final ThreadLocal<ArrayDancingLinks> WORKSPACE =
+            ThreadLocal.withInitial(() -> new ArrayDancingLinks(TEMPLATE));
+
     private final SudokuMetrics metrics;
     private final long timeoutMs;
     private final boolean printMetrics;
+    private final ForkJoinPool pool;                // null for the sequential search
+    private final ParallelDLXSearch parallelSearch; // null for the sequential search
 
     /**
      * Creates a new SudokuDLXSolver with default settings.
@@ -54,13 +67,215 @@ public class SudokuDLXSolver implements SudokuSolver {
      * @param printMetrics Whether to print metrics after solving
      */
     public SudokuDLXSolver(long timeoutMs, boolean printMetrics) {
+        this(timeoutMs, printMetrics, 1);
+    }
+
+    /**
+     * Creates a new SudokuDLXSolver that searches in parallel on its own ForkJoinPool.
+     * The top levels of the search tree are split into subtasks scheduled with work stealing.
+     *
+     * @param timeoutMs    The timeout in milliseconds
+     * @param printMetrics Whether to print metrics after solving
+     * @param parallelism  The pool size; 1 or less uses the sequential search
+     */
+    public SudokuDLXSolver(long timeoutMs, boolean printMetrics, int parallelism) {
         this.timeoutMs = timeoutMs;
         this.printMetrics = printMetrics;
         this.metrics = new SudokuMetrics();
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        this.parallelSearch = pool != null
+                ? new ParallelDLXSearch(pool, ParallelDLXSearch.DEFAULT_SPLIT_DEPTH)
+                : null;
     }
 
+    /**
+     * Solves a Sudoku puzzle, stopping at the first solution found.
+     */
     @Override
     public int[][] solve(int[][] board) throws SudokuTimeoutException {
+        return solve(board, null);
+    }
+
+    /**
+     * Solves a Sudoku puzzle, stopping at the first solution found or once {@code token} is cancelled or expires.
+     */
+    @Override
+    public int[][] solve(int[][] board, CancellationToken token) throws SudokuTimeoutException {
+        validateBoard(board);
+
+        // Track performance metrics, including building the workspace
+        metrics.startTracking();
+        metrics.startPhase("setup");
+
+        // Create the solution handler
+        SudokuSolutionHandler handler = new SudokuSolutionHandler();
+        ArrayDancingLinks dlx = prepareWorkspace(board, handler, metrics);
+
+        runTracked(dlx, handler, token);
+        return handler.getSolution();
+    }
+
+    /**
+     * Solves a compact board, stopping at the first solution found. Duplicate givens are
+     * detected while the givens are selected, so no separate validation pass is needed; the
+     * workspace is therefore prepared before tracking starts, so a rejected board leaves the
+     * metrics untouched.
+     */
+    @Override
+    public CompactBoard solve(CompactBoard board) throws SudokuTimeoutException {
+        SudokuSolutionHandler handler = new SudokuSolutionHandler();
+        ArrayDancingLinks dlx = prepareWorkspace(board, handler, metrics);
+
+        metrics.startTracking();
+        runTracked(dlx, handler, null);
+        return handler.getCompactSolution();
+    }
+
+    /**
+     * Runs the prepared workspace to the first solution and stops tracking metrics, which
+     * the caller has started. The search stops early once the
+     * caller's token or this solver's own timeout says so.
+     */
+    private void runTracked(ArrayDancingLinks dlx, SudokuSolutionHandler handler, CancellationToken token)
+            throws SudokuTimeoutException {
+        metrics.startPhase("search");
+        CancellationToken searchToken = CancellationToken.withTimeout(token, timeoutMs);
+
+        // Run the DancingLinks solver
+        try {
+            if (parallelSearch != null) {
+                parallelSearch.search(dlx, 1, handler, metrics, searchToken);
+            } else {
+                dlx.setCancellationToken(searchToken);
+                dlx.runSolver(1);
+            }
+        } finally {
+            metrics.stopTracking();
+            if (printMetrics) {
+                metrics.printMetrics();
+            }
+        }
+
+        if (!handler.isFilled()) {
+            searchToken.throwIfStopped();
+        }
+    }
+
+    /**
+     * Solves a Sudoku puzzle without tracking metrics, for bulk callers that time puzzles
+     * themselves. The search stops at the first solution found.
+     *
+     * @param board 2D array representing the Sudoku puzzle (0 for empty cells, 1-9 for filled cells)
+     * @return The solved puzzle as a new 2D array, or null if no solution exists
+     * @throws SudokuTimeoutException if the puzzle cannot be solved within the time limit
+     */
+    public int[][] findSolution(int[][] board) throws SudokuTimeoutException {
+        validateBoard(board);
+        SudokuSolutionHandler handler = new SudokuSolutionHandler();
+        runUntracked(prepareWorkspace(board, handler, null), handler, null);
+        return handler.getSolution();
+    }
+
+    /**
+     * Solves a compact board without tracking metrics, for bulk callers that time puzzles
+     * themselves. The search stops at the first solution found.
+     *
+     * @param board The Sudoku puzzle (0 for empty cells, 1-9 for filled cells)
+     * @return The solved puzzle as a new compact board, or null if no solution exists
+     * @throws SudokuTimeoutException if the puzzle cannot be solved within the time limit
+     */
+    public CompactBoard findSolution(CompactBoard board) throws SudokuTimeoutException {
+        return findSolution(board, null);
+    }
+
+    /**
+     * Solves a compact board without tracking metrics, stopping at the first solution found or
+     * once {@code token} is cancelled or expires.
+     *
+     * @param board The Sudoku puzzle (0 for empty cells, 1-9 for filled cells)
+     * @param token The caller's cancellation token, or null for none
+     * @return The solved puzzle as a new compact board, or null if no solution exists
+     * @throws SudokuTimeoutException if the puzzle cannot be solved within the time limit or the token stops it
+     */
+    public CompactBoard findSolution(CompactBoard board, CancellationToken token) throws SudokuTimeoutException {
+        SudokuSolutionHandler handler = new SudokuSolutionHandler();
+        runUntracked(prepareWorkspace(board, handler, null), handler, token);
+        return handler.getCompactSolution();
+    }
+
+    private void runUntracked(ArrayDancingLinks dlx, SudokuSolutionHandler handler, CancellationToken token)
+            throws SudokuTimeoutException {
+        CancellationToken searchToken = CancellationToken.withTimeout(token, timeoutMs);
+        if (parallelSearch != null) {
+            parallelSearch.search(dlx, 1, handler, null, searchToken);
+        } else {
+            dlx.setCancellationToken(searchToken);
+            dlx.runSolver(1);
+        }
+
+        if (!handler.isFilled()) {
+            searchToken.throwIfStopped();
+        }
+    }
+
+    /**
+     * Counts the solutions of a puzzle without materialising them, stopping once {@code limit}
+     * solutions have been found. No metrics are tracked for counting.
+     *
+     * @param board 2D array representing the Sudoku puzzle (0 for empty cells, 1-9 for filled cells)
+     * @param limit The count at which the search stops
+     * @return The number of solutions, at most {@code limit}
+     * @throws SudokuTimeoutException if counting takes longer than the time limit
+     */
+    public int countSolutions(int[][] board, int limit) throws SudokuTimeoutException {
+        return countSolutions(board, limit, null);
+    }
+
+    /**
+     * Counts the solutions of a puzzle without materialising them, stopping once {@code limit}
+     * solutions have been found or once {@code token} is cancelled or expires.
+     *
+     * @param board 2D array representing the Sudoku puzzle (0 for empty cells, 1-9 for filled cells)
+     * @param limit The count at which the search stops
+     * @param token The caller's cancellation token, or null for none
+     * @return The number of solutions, at most {@code limit}
+     * @throws SudokuTimeoutException if counting takes longer than the time limit or the token stops it
+     */
+    public int countSolutions(int[][] board, int limit, CancellationToken token) throws SudokuTimeoutException {
+        validateBoard(board);
+        ArrayDancingLinks dlx = prepareWorkspace(board, null, null);
+        CancellationToken searchToken = CancellationToken.withTimeout(token, timeoutMs);
+        int count;
+        if (parallelSearch != null) {
+            count = parallelSearch.search(dlx, limit, null, null, searchToken);
+        } else {
+            dlx.setCancellationToken(searchToken);
+            count = dlx.countSolutions(limit);
+        }
+
+        // A search that stopped short of the limit may have been cut off, so its count cannot be trusted
+        if (count < limit) {
+            searchToken.throwIfStopped();
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether a puzzle has exactly one solution. The search stops as soon as a
+     * second solution is found.
+     *
+     * @param board 2D array representing the Sudoku puzzle (0 for empty cells, 1-9 for filled cells)
+     * @return true if the puzzle has exactly one solution
+     * @throws SudokuTimeoutException if the check takes longer than the time limit
+     */
+    public boolean isUnique(int[][] board) throws SudokuTimeoutException {
+        return countSolutions(board, 2) == 1;
+    }
+
+    /**
+     * Checks the board dimensions, value range and givens.
+     */
+    private void validateBoard(int[][] board) {
         // Basic dimension checks
         if (board == null || board.length != GRID_SIZE) {
             throw new IllegalArgumentException("Board must be a 9x9 grid");
@@ -80,36 +295,47 @@ public class SudokuDLXSolver implements SudokuSolver {
         if (!isValidBoardIgnoringZeros(board)) {
             throw new IllegalArgumentException("Board contains duplicates in row, column, or box");
         }
+    }
 
-        // Track performance metrics
-        metrics.startTracking();
-
-        // Build the exact cover grid
-        int[][] cover = buildExactCoverGrid(board);
-
-        // Create the solution handler
-        SudokuSolutionHandler handler = new SudokuSolutionHandler();
-
-        // Create and run the DancingLinks solver
-        try {
-            new DancingLinks(cover, handler, metrics).runSolver();
-        } catch (SudokuTimeoutException e) {
-            metrics.stopTracking();
-            if (printMetrics) {
-                metrics.printMetrics();
+    /**
+     * Restores this thread's workspace from the empty-grid template and fixes the givens.
+     */
+    private ArrayDancingLinks prepareWorkspace(int[][] board, RowSolutionHandler handler, SudokuMetrics metrics) {
+        ArrayDancingLinks dlx = resetWorkspace(handler, metrics);
+        for (int r = 0; r < GRID_SIZE; r++) {
+            for (int c = 0; c < GRID_SIZE; c++) {
+                if (board[r][c] != 0 && !dlx.selectRow(SudokuExactCover.rowId(r, c, board[r][c]))) {
+                    throw new IllegalArgumentException("Board contains duplicates in row, column, or box");
+                }
             }
-            throw e;
         }
+        return dlx;
+    }
 
-        // Get the solution
-        int[][] solution = handler.getSolution();
-
-        metrics.stopTracking();
-        if (printMetrics) {
-            metrics.printMetrics();
+    /**
+     * Restores this thread's workspace from the empty-grid template and fixes the givens of a compact board.
+     */
+    private ArrayDancingLinks prepareWorkspace(CompactBoard board, RowSolutionHandler handler, SudokuMetrics metrics) {
+        if (board == null) {
+            throw new IllegalArgumentException("Board must be a 9x9 grid");
+        }
+        ArrayDancingLinks dlx = resetWorkspace(handler, metrics);
+        for (int cell = 0; cell < CompactBoard.CELL_COUNT; cell++) {
+            int value = board.get(cell);
+            if (value != 0 && !dlx.selectRow(SudokuExactCover.rowId(cell / GRID_SIZE, cell % GRID_SIZE, value))) {
+                throw new IllegalArgumentException("Board contains duplicates in row, column, or box");
+            }
         }
+        return dlx;
+    }
 
-        return solution;
+    private ArrayDancingLinks resetWorkspace(RowSolutionHandler handler, SudokuMetrics metrics) {
+        ArrayDancingLinks dlx = WORKSPACE.get();
+        dlx.copyFrom(TEMPLATE);
+        dlx.setSolutionHandler(handler);
+        dlx.setMetrics(metrics);
+        dlx.setCancellationToken(null);
+        return dlx;
     }
 
     /**
@@ -152,36 +378,13 @@ public class SudokuDLXSolver implements SudokuSolver {
     }
 
     /**
-     * Builds the exact cover grid for the Sudoku puzzle.
+     * Stops the worker threads of the parallel search, if this solver has one. A solve that is
+     * still running finishes first; a parallel solver cannot be used afterwards.
      */
-    private static int[][] buildExactCoverGrid(int[][] puzzle) {
-        int[][] cover = new int[ROWS][COLS];
-        int rowPtr = 0;
-
-        for (int r = 0; r < GRID_SIZE; r++)
-            for (int c = 0; c < GRID_SIZE; c++)
-                for (int d = 0; d < GRID_SIZE; d++) {
-
-                    /*  Skip digits that collide with a given clue  */
-                    if (puzzle[r][c] != 0 && puzzle[r][c] != d + 1) {
-                        rowPtr++;
-                        continue;
-                    }
-
-                    int box = (r / BOX_SIZE) * BOX_SIZE + (c / BOX_SIZE);
-
-                    int cellCol = r * GRID_SIZE + c;                   // 0-80
-                    int rowCol = 81 + r * GRID_SIZE + d;               // 81-161
-                    int colCol = 162 + c * GRID_SIZE + d;              // 162-242
-                    int boxCol = 243 + box * GRID_SIZE + d;            // 243-323
-
-                    cover[rowPtr][cellCol] = 1;
-                    cover[rowPtr][rowCol] = 1;
-                    cover[rowPtr][colCol] = 1;
-                    cover[rowPtr][boxCol] = 1;
-                    rowPtr++;
-                }
-        return cover;
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
     }
 
     /**
@@ -194,51 +397,57 @@ public class SudokuDLXSolver implements SudokuSolver {
     }
 
     /**
-     * Handler for Sudoku solutions found by the DancingLinks algorithm.
+     * Handler for Sudoku solutions found by the ArrayDancingLinks algorithm.
+     * Row ids follow the layout of {@link SudokuExactCover#rowId(int, int, int)}.
      */
-    private static class SudokuSolutionHandler implements SolutionHandler {
+    private static class SudokuSolutionHandler implements RowSolutionHandler {
 
-        private final int[][] board = new int[GRID_SIZE][GRID_SIZE];
+        private final byte[] cells = new byte[GRID_SIZE * GRID_SIZE];
         private boolean filled = false;
 
         @Override
-        public void handleSolution(List<DancingLinks.DancingNode> answer) {
-            if (filled) return; // Only use the first solution
-
-            // Convert the list of chosen rows back into a grid
-            for (DancingLinks.DancingNode n : answer) {
-                // Each row in the DLX matrix represents a cell-value placement
-                // We need to extract the row, column, and digit from the constraints
-                int row = -1, col = -1, digit = -1;
-
-                // Walk the row ring to gather the four column indices
-                for (DancingLinks.DancingNode j = n; ; j = j.R) {
-                    int idx = Integer.parseInt(j.C.name);
-
-                    if (idx < 81) {                 // cell constraint
-                        row = idx / 9;
-                        col = idx % 9;
-                    } else if (idx < 162) {         // row-digit constraint
-                        int rowDigitIdx = idx - 81;
-                        digit = rowDigitIdx % 9;
-                    }
-
-                    if (j.R == n) break;  // We've gone all the way around
-                }
-
-                // If we found valid row, column, and digit, place it in the solution
-                if (row >= 0 && col >= 0 && digit >= 0) {
-                    board[row][col] = digit + 1;  // +1 because digits are 0-based in the constraints
-                }
+        public void handleSolution(int[] rowIds, int count) {
+            if (filled) return; // Only use the first solution (the search stops after it anyway)
+
+            // Convert the chosen rows back into cell values
+            for (int i = 0; i < count; i++) {
+                int id = rowIds[i];
+                cells[SudokuExactCover.rowOf(id) * GRID_SIZE + SudokuExactCover.colOf(id)] =
+                        (byte) SudokuExactCover.digitOf(id);
             }
             filled = true;
         }
 
+        boolean isFilled() {
+            return filled;
+        }
+
         /**
          * Gets the solution if one was found.
          */
         int[][] getSolution() {
-            return filled ? board : null;
+            if (!filled) {
+                return null;
+            }
+            int[][] board = new int[GRID_SIZE][GRID_SIZE];
+            for (int cell = 0; cell < cells.length; cell++) {
+                board[cell / GRID_SIZE][cell % GRID_SIZE] = cells[cell];
+            }
+            return board;
+        }
+
+        /**
+         * Gets the solution as a compact board if one was found.
+         */
+        CompactBoard getCompactSolution() {
+            if (!filled) {
+                return null;
+            }
+            CompactBoard board = new CompactBoard();
+            for (int cell = 0; cell < cells.length; cell++) {
+                board.set(cell, cells[cell]);
+            }
+            return board;
         }
     }
 }
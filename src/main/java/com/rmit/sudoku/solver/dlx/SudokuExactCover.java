@@ -0,0 +1,122 @@
+package com.rmit.sudoku.solver.dlx;
+
+/**
+ * Encodes 9x9 Sudoku as an exact cover problem.
+ * <p>
+ * Each candidate placement (row, col, digit) is a matrix row with id
+ * {@code (row * 9 + col) * 9 + (digit - 1)} and exactly four 1-entries:
+ * <ul>
+ *   <li>0-80: the cell is filled</li>
+ *   <li>81-161: the row contains the digit</li>
+ *   <li>162-242: the column contains the digit</li>
+ *   <li>243-323: the box contains the digit</li>
+ * </ul>
+ */
+public final class SudokuExactCover {
+
+    public static final int GRID_SIZE = 9;
+    public static final int BOX_SIZE = 3;
+    public static final int CELL_COUNT = GRID_SIZE * GRID_SIZE;            // 81
+    public static final int ROW_COUNT = CELL_COUNT * GRID_SIZE;            // 729
+    public static final int COLUMN_COUNT = CELL_COUNT * 4;                 // 324
+    public static final int ENTRIES_PER_ROW = 4;
+
+    private SudokuExactCover() {
+    }
+
+    /**
+     * Gets the id of the matrix row that places {@code digit} at ({@code row}, {@code col}).
+     *
+     * @param digit The digit, 1-9
+     */
+    public static int rowId(int row, int col, int digit) {
+        return (row * GRID_SIZE + col) * GRID_SIZE + digit - 1;
+    }
+
+    /**
+     * Gets the board row encoded in a matrix row id.
+     */
+    public static int rowOf(int rowId) {
+        return rowId / CELL_COUNT;
+    }
+
+    /**
+     * Gets the board column encoded in a matrix row id.
+     */
+    public static int colOf(int rowId) {
+        return (rowId / GRID_SIZE) % GRID_SIZE;
+    }
+
+    /**
+     * Gets the digit (1-9) encoded in a matrix row id.
+     */
+    public static int digitOf(int rowId) {
+        return rowId % GRID_SIZE + 1;
+    }
+
+    /**
+     * Builds the sparse exact cover matrix for a puzzle.
+     * <p>
+     * Rows are only produced for placements that the givens allow: a filled cell
+     * contributes just its given digit, and an empty cell only the digits not already
+     * used in its row, column or box. The input must be free of duplicate givens.
+     *
+     * @param puzzle The puzzle (0 for empty cells)
+     * @return The sparse matrix, with four entries per candidate row
+     */
+    public static ExactCoverMatrix build(int[][] puzzle) {
+        int[] rowUsed = new int[GRID_SIZE];
+        int[] colUsed = new int[GRID_SIZE];
+        int[] boxUsed = new int[GRID_SIZE];
+        int rowsNeeded = 0;
+
+        for (int r = 0; r < GRID_SIZE; r++) {
+            for (int c = 0; c < GRID_SIZE; c++) {
+                int v = puzzle[r][c];
+                if (v != 0) {
+                    int bit = 1 << (v - 1);
+                    rowUsed[r] |= bit;
+                    colUsed[c] |= bit;
+                    boxUsed[boxOf(r, c)] |= bit;
+                }
+            }
+        }
+        for (int r = 0; r < GRID_SIZE; r++) {
+            for (int c = 0; c < GRID_SIZE; c++) {
+                rowsNeeded += puzzle[r][c] != 0 ? 1
+                        : GRID_SIZE - Integer.bitCount(rowUsed[r] | colUsed[c] | boxUsed[boxOf(r, c)]);
+            }
+        }
+
+        ExactCoverMatrix matrix = new ExactCoverMatrix(COLUMN_COUNT, rowsNeeded, rowsNeeded * ENTRIES_PER_ROW);
+        for (int r = 0; r < GRID_SIZE; r++) {
+            for (int c = 0; c < GRID_SIZE; c++) {
+                int given = puzzle[r][c];
+                int used = rowUsed[r] | colUsed[c] | boxUsed[boxOf(r, c)];
+                for (int d = 1; d <= GRID_SIZE; d++) {
+                    if (given != 0 ? given != d : (used & (1 << (d - 1))) != 0) {
+                        continue;
+                    }
+                    addPlacementRow(matrix, r, c, d);
+                }
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Appends the matrix row for placing {@code digit} at ({@code row}, {@code col}).
+     */
+    static void addPlacementRow(ExactCoverMatrix matrix, int row, int col, int digit) {
+        int d = digit - 1;
+        matrix.beginRow(rowId(row, col, digit));
+        matrix.addEntry(row * GRID_SIZE + col);                            // 0-80
+        matrix.addEntry(CELL_COUNT + row * GRID_SIZE + d);                 // 81-161
+        matrix.addEntry(2 * CELL_COUNT + col * GRID_SIZE + d);             // 162-242
+        matrix.addEntry(3 * CELL_COUNT + boxOf(row, col) * GRID_SIZE + d); // 243-323
+    }
+
+    private static int boxOf(int row, int col) {
+        return (row / BOX_SIZE) * BOX_SIZE + col / BOX_SIZE;
+    }
+}
@@ -0,0 +1,517 @@
+package com.rmit.sudoku.solver.propagation;
+
+import java.util.Arrays;
+
+/**
+ * Constraint propagation over per-cell candidate bitmasks.
+ * <p>
+ * Bit {@code d - 1} of a cell's mask is set while digit {@code d} is still possible there.
+ * {@link #propagate()} applies the {@link Technique}s in order, restarting from the simplest one
+ * whenever a technique makes progress, until a fixed point or a contradiction is reached.
+ * The propagator counts how often each technique fired, which the solver reports as metrics.
+ */
+public class ConstraintPropagator {
+
+    static final int GRID_SIZE = 9;
+    static final int BOX_SIZE = 3;
+    static final int CELL_COUNT = GRID_SIZE * GRID_SIZE;
+    static final int UNIT_COUNT = GRID_SIZE * 3;
+    static final int ALL_DIGITS = (1 << GRID_SIZE) - 1;
+
+    /** Size of the buffer needed by {@link #saveState(int[])}. */
+    public static final int STATE_SIZE = CELL_COUNT * 2 + 1;
+
+    /** Cells of each unit: rows 0-8, columns 9-17, boxes 18-26. */
+    static final int[][] UNITS = new int[UNIT_COUNT][GRID_SIZE];
+    /** The 20 cells sharing a unit with each cell. */
+    static final int[][] PEERS = new int[CELL_COUNT][20];
+
+    static {
+        for (int i = 0; i < GRID_SIZE; i++) {
+            for (int j = 0; j < GRID_SIZE; j++) {
+                UNITS[i][j] = i * GRID_SIZE + j;
+                UNITS[GRID_SIZE + i][j] = j * GRID_SIZE + i;
+                int boxRow = (i / BOX_SIZE) * BOX_SIZE + j / BOX_SIZE;
+                int boxCol = (i % BOX_SIZE) * BOX_SIZE + j % BOX_SIZE;
+                UNITS[2 * GRID_SIZE + i][j] = boxRow * GRID_SIZE + boxCol;
+            }
+        }
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            int row = cell / GRID_SIZE;
+            int col = cell % GRID_SIZE;
+            int count = 0;
+            for (int other = 0; other < CELL_COUNT; other++) {
+                int r = other / GRID_SIZE;
+                int c = other % GRID_SIZE;
+                boolean sameBox = r / BOX_SIZE == row / BOX_SIZE && c / BOX_SIZE == col / BOX_SIZE;
+                if (other != cell && (r == row || c == col || sameBox)) {
+                    PEERS[cell][count++] = other;
+                }
+            }
+        }
+    }
+
+    private final int[] values = new int[CELL_COUNT];
+    private final int[] candidates = new int[CELL_COUNT];
+    private int emptyCount;
+    private boolean contradiction;
+
+    private final long[] techniqueCounts = new long[Technique.values().length];
+    private long operationCount;
+
+    /**
+     * Resets the state to the given board and clears the technique counters.
+     *
+     * @param board The puzzle (0 for empty cells)
+     * @return false if the givens contradict each other
+     */
+    public boolean load(int[][] board) {
+        Arrays.fill(values, 0);
+        Arrays.fill(candidates, ALL_DIGITS);
+        Arrays.fill(techniqueCounts, 0);
+        emptyCount = CELL_COUNT;
+        contradiction = false;
+        operationCount = 0;
+
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            int value = board[cell / GRID_SIZE][cell % GRID_SIZE];
+            if (value != 0 && !assign(cell, value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Places a digit and removes it from the candidates of all peers.
+     *
+     * @param cell  The cell index (row * 9 + col)
+     * @param digit The digit, 1-9
+     * @return false if the placement causes a contradiction
+     */
+    public boolean assign(int cell, int digit) {
+        int bit = 1 << (digit - 1);
+        if (values[cell] != 0) {
+            return values[cell] == digit;
+        }
+        if ((candidates[cell] & bit) == 0) {
+            contradiction = true;
+            return false;
+        }
+        values[cell] = digit;
+        candidates[cell] = bit;
+        emptyCount--;
+        operationCount++;
+
+        for (int peer : PEERS[cell]) {
+            if (values[peer] == digit) {
+                contradiction = true;
+                return false;
+            }
+            eliminate(peer, bit);
+        }
+        return !contradiction;
+    }
+
+    /**
+     * Applies all techniques until no more progress can be made.
+     *
+     * @return false if a contradiction was found, true otherwise
+     */
+    public boolean propagate() {
+        Technique[] techniques = Technique.values();
+        int index = 0;
+        while (index < techniques.length) {
+            if (contradiction) {
+                return false;
+            }
+            int progress = apply(techniques[index]);
+            if (progress < 0 || contradiction) {
+                contradiction = true;
+                return false;
+            }
+            if (progress > 0) {
+                techniqueCounts[index] += progress;
+                index = 0; // Restart from the simplest technique
+            } else {
+                index++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies one full pass of a technique.
+     *
+     * @return The number of placements or eliminations made, or -1 on contradiction
+     */
+    private int apply(Technique technique) {
+        switch (technique) {
+            case NAKED_SINGLE:
+                return nakedSingles();
+            case HIDDEN_SINGLE:
+                return hiddenSingles();
+            case POINTING:
+                return pointing();
+            case BOX_LINE_REDUCTION:
+                return boxLineReduction();
+            case NAKED_PAIR:
+                return nakedSubsets(2);
+            case HIDDEN_PAIR:
+                return hiddenSubsets(2);
+            case NAKED_TRIPLE:
+                return nakedSubsets(3);
+            case HIDDEN_TRIPLE:
+                return hiddenSubsets(3);
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Fills every empty cell that has a single candidate left.
+     */
+    private int nakedSingles() {
+        int progress = 0;
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            if (values[cell] != 0) continue;
+            int mask = candidates[cell];
+            if (mask == 0) return -1;
+            if ((mask & (mask - 1)) == 0) {
+                if (!assign(cell, Integer.numberOfTrailingZeros(mask) + 1)) return -1;
+                progress++;
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * Fills a cell when it is the only place left for a digit in one of its units.
+     */
+    private int hiddenSingles() {
+        int progress = 0;
+        for (int[] unit : UNITS) {
+            int placed = placedMask(unit);
+            for (int d = 0; d < GRID_SIZE; d++) {
+                int bit = 1 << d;
+                if ((placed & bit) != 0) continue;
+                int count = 0;
+                int where = -1;
+                for (int cell : unit) {
+                    if (values[cell] == 0 && (candidates[cell] & bit) != 0) {
+                        count++;
+                        where = cell;
+                    }
+                }
+                if (count == 0) return -1;
+                if (count == 1) {
+                    if (!assign(where, d + 1)) return -1;
+                    placed |= bit;
+                    progress++;
+                }
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * When a digit's candidates inside a box all lie on one row or column,
+     * removes the digit from the rest of that row or column.
+     */
+    private int pointing() {
+        int progress = 0;
+        for (int b = 0; b < GRID_SIZE; b++) {
+            int[] box = UNITS[2 * GRID_SIZE + b];
+            int placed = placedMask(box);
+            for (int d = 0; d < GRID_SIZE; d++) {
+                int bit = 1 << d;
+                if ((placed & bit) != 0) continue;
+                int rows = 0;
+                int cols = 0;
+                for (int cell : box) {
+                    if (values[cell] == 0 && (candidates[cell] & bit) != 0) {
+                        rows |= 1 << (cell / GRID_SIZE);
+                        cols |= 1 << (cell % GRID_SIZE);
+                    }
+                }
+                if (rows == 0) return -1;
+                if (Integer.bitCount(rows) == 1) {
+                    progress += eliminateOutside(UNITS[Integer.numberOfTrailingZeros(rows)], box, bit);
+                }
+                if (Integer.bitCount(cols) == 1) {
+                    progress += eliminateOutside(UNITS[GRID_SIZE + Integer.numberOfTrailingZeros(cols)], box, bit);
+                }
+            }
+        }
+        return contradiction ? -1 : progress;
+    }
+
+    /**
+     * When a digit's candidates inside a row or column all lie in one box,
+     * removes the digit from the rest of that box.
+     */
+    private int boxLineReduction() {
+        int progress = 0;
+        for (int u = 0; u < 2 * GRID_SIZE; u++) {
+            int[] line = UNITS[u];
+            int placed = placedMask(line);
+            for (int d = 0; d < GRID_SIZE; d++) {
+                int bit = 1 << d;
+                if ((placed & bit) != 0) continue;
+                int boxes = 0;
+                for (int cell : line) {
+                    if (values[cell] == 0 && (candidates[cell] & bit) != 0) {
+                        boxes |= 1 << boxOf(cell);
+                    }
+                }
+                if (boxes == 0) return -1;
+                if (Integer.bitCount(boxes) == 1) {
+                    progress += eliminateOutside(UNITS[2 * GRID_SIZE + Integer.numberOfTrailingZeros(boxes)], line, bit);
+                }
+            }
+        }
+        return contradiction ? -1 : progress;
+    }
+
+    /**
+     * When {@code k} cells of a unit only hold {@code k} digits between them,
+     * removes those digits from the other cells of the unit.
+     */
+    private int nakedSubsets(int k) {
+        int progress = 0;
+        int[] open = new int[GRID_SIZE];
+        for (int[] unit : UNITS) {
+            int n = 0;
+            for (int cell : unit) {
+                int count = Integer.bitCount(candidates[cell]);
+                if (values[cell] == 0 && count >= 2 && count <= k) {
+                    open[n++] = cell;
+                }
+            }
+            for (int a = 0; a < n; a++) {
+                for (int b = a + 1; b < n; b++) {
+                    if (k == 2) {
+                        progress += applyNakedSubset(unit, candidates[open[a]] | candidates[open[b]], k,
+                                open[a], open[b], -1);
+                        continue;
+                    }
+                    for (int c = b + 1; c < n; c++) {
+                        progress += applyNakedSubset(unit, candidates[open[a]] | candidates[open[b]] | candidates[open[c]],
+                                k, open[a], open[b], open[c]);
+                    }
+                }
+            }
+            if (contradiction) return -1;
+        }
+        return progress;
+    }
+
+    private int applyNakedSubset(int[] unit, int digits, int k, int c1, int c2, int c3) {
+        int size = Integer.bitCount(digits);
+        if (size < k) {
+            contradiction = true; // k cells share fewer than k digits
+            return 0;
+        }
+        if (size > k) return 0;
+        int progress = 0;
+        for (int cell : unit) {
+            if (cell != c1 && cell != c2 && cell != c3) {
+                progress += eliminate(cell, digits);
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * When {@code k} digits of a unit can only go in the same {@code k} cells,
+     * removes every other digit from those cells.
+     */
+    private int hiddenSubsets(int k) {
+        int progress = 0;
+        int[] positions = new int[GRID_SIZE];
+        int[] digits = new int[GRID_SIZE];
+        for (int[] unit : UNITS) {
+            int placed = placedMask(unit);
+            int n = 0;
+            for (int d = 0; d < GRID_SIZE; d++) {
+                int bit = 1 << d;
+                if ((placed & bit) != 0) continue;
+                int where = 0;
+                for (int i = 0; i < GRID_SIZE; i++) {
+                    int cell = unit[i];
+                    if (values[cell] == 0 && (candidates[cell] & bit) != 0) {
+                        where |= 1 << i;
+                    }
+                }
+                int count = Integer.bitCount(where);
+                if (count >= 2 && count <= k) {
+                    positions[n] = where;
+                    digits[n] = bit;
+                    n++;
+                }
+            }
+            for (int a = 0; a < n; a++) {
+                for (int b = a + 1; b < n; b++) {
+                    if (k == 2) {
+                        progress += applyHiddenSubset(unit, positions[a] | positions[b], digits[a] | digits[b], k);
+                        continue;
+                    }
+                    for (int c = b + 1; c < n; c++) {
+                        progress += applyHiddenSubset(unit, positions[a] | positions[b] | positions[c],
+                                digits[a] | digits[b] | digits[c], k);
+                    }
+                }
+            }
+            if (contradiction) return -1;
+        }
+        return progress;
+    }
+
+    private int applyHiddenSubset(int[] unit, int where, int digitMask, int k) {
+        int size = Integer.bitCount(where);
+        if (size < k) {
+            contradiction = true; // k digits confined to fewer than k cells
+            return 0;
+        }
+        if (size > k) return 0;
+        int progress = 0;
+        for (int i = 0; i < GRID_SIZE; i++) {
+            if ((where & (1 << i)) != 0) {
+                progress += eliminate(unit[i], ~digitMask & ALL_DIGITS);
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * Removes {@code mask} from the cells of {@code target} that are not in {@code keep}.
+     */
+    private int eliminateOutside(int[] target, int[] keep, int mask) {
+        int progress = 0;
+        for (int cell : target) {
+            boolean inside = false;
+            for (int k : keep) {
+                if (k == cell) {
+                    inside = true;
+                    break;
+                }
+            }
+            if (!inside) {
+                progress += eliminate(cell, mask);
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * Removes the digits in {@code mask} from an empty cell.
+     *
+     * @return 1 if any candidate was removed, 0 otherwise
+     */
+    private int eliminate(int cell, int mask) {
+        if (values[cell] != 0 || (candidates[cell] & mask) == 0) {
+            return 0;
+        }
+        candidates[cell] &= ~mask;
+        operationCount++;
+        if (candidates[cell] == 0) {
+            contradiction = true;
+        }
+        return 1;
+    }
+
+    private int placedMask(int[] unit) {
+        int mask = 0;
+        for (int cell : unit) {
+            if (values[cell] != 0) {
+                mask |= 1 << (values[cell] - 1);
+            }
+        }
+        return mask;
+    }
+
+    private static int boxOf(int cell) {
+        return (cell / GRID_SIZE / BOX_SIZE) * BOX_SIZE + (cell % GRID_SIZE) / BOX_SIZE;
+    }
+
+    /**
+     * Copies the cell values, candidates and empty count into {@code buffer}.
+     *
+     * @param buffer An array of at least {@link #STATE_SIZE} ints
+     */
+    public void saveState(int[] buffer) {
+        System.arraycopy(values, 0, buffer, 0, CELL_COUNT);
+        System.arraycopy(candidates, 0, buffer, CELL_COUNT, CELL_COUNT);
+        buffer[2 * CELL_COUNT] = emptyCount;
+    }
+
+    /**
+     * Restores a state saved with {@link #saveState(int[])}. Technique counters are kept.
+     */
+    public void restoreState(int[] buffer) {
+        System.arraycopy(buffer, 0, values, 0, CELL_COUNT);
+        System.arraycopy(buffer, CELL_COUNT, candidates, 0, CELL_COUNT);
+        emptyCount = buffer[2 * CELL_COUNT];
+        contradiction = false;
+    }
+
+    /**
+     * Gets the empty cell with the fewest candidates, or -1 if the board is full.
+     */
+    public int selectCell() {
+        int best = -1;
+        int bestCount = GRID_SIZE + 1;
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            if (values[cell] == 0) {
+                int count = Integer.bitCount(candidates[cell]);
+                if (count < bestCount) {
+                    best = cell;
+                    bestCount = count;
+                    if (count <= 2) break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Copies the current values into a new 9x9 board.
+     */
+    public int[][] toBoard() {
+        int[][] board = new int[GRID_SIZE][GRID_SIZE];
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            board[cell / GRID_SIZE][cell % GRID_SIZE] = values[cell];
+        }
+        return board;
+    }
+
+    public boolean isSolved() {
+        return emptyCount == 0;
+    }
+
+    public int getEmptyCount() {
+        return emptyCount;
+    }
+
+    public int getValue(int cell) {
+        return values[cell];
+    }
+
+    public int getCandidates(int cell) {
+        return candidates[cell];
+    }
+
+    /**
+     * Gets how many placements or eliminations the given technique made since the last {@link #load(int[][])}.
+     */
+    public long getTechniqueCount(Technique technique) {
+        return techniqueCounts[technique.ordinal()];
+    }
+
+    /**
+     * Gets the number of placements and candidate eliminations performed.
+     */
+    public long getOperationCount() {
+        return operationCount;
+    }
+}
@@ -0,0 +1,263 @@
+package com.rmit.sudoku.solver.propagation;
+
+import com.rmit.sudoku.metrics.SudokuMetrics;
+import com.rmit.sudoku.solver.CancellationToken;
+import com.rmit.sudoku.solver.SudokuSolver;
+import com.rmit.sudoku.solver.SudokuTimeoutException;
+import com.rmit.sudoku.validator.SudokuValidator;
+
+/**
+ * Implementation of the SudokuSolver interface that runs constraint propagation before searching.
+ * <p>
+ * The puzzle is first reduced to a fixed point with the {@link ConstraintPropagator}. If cells
+ * remain empty, they are either handed to a delegate solver (e.g. the backtracking or DLX solver),
+ * or, without a delegate, solved by a built-in search that branches on the cell with the fewest
+ * candidates and propagates again after every guess.
+ */
+public class PropagatingSudokuSolver implements SudokuSolver {
+
+    private static final int GRID_SIZE = 9;
+    private static final int CELL_COUNT = GRID_SIZE * GRID_SIZE;
+    private static final long DEFAULT_TIMEOUT_MS = 120000; // 2 minutes
+
+    private final SudokuSolver delegate;
+    private final SudokuMetrics metrics;
+    private final long timeoutMs;
+    private final boolean printMetrics;
+
+    private final ConstraintPropagator propagator = new ConstraintPropagator();
+    private final int[][] savedStates = new int[CELL_COUNT + 1][ConstraintPropagator.STATE_SIZE];
+    private int guesses;
+    private CancellationToken searchToken;
+    private CancellationToken.Poller poller;
+
+    // Counted in plain fields during the search and handed to the metrics once it ends
+    private long operations;
+    private int maxDepth;
+    private boolean sampleMemory;
+
+    /**
+     * Creates a new PropagatingSudokuSolver that propagates between its own search branches.
+     */
+    public PropagatingSudokuSolver() {
+        this(null, DEFAULT_TIMEOUT_MS, true);
+    }
+
+    /**
+     * Creates a new PropagatingSudokuSolver that hands the reduced puzzle to another solver.
+     *
+     * @param delegate The solver used for the cells propagation cannot fill
+     */
+    public PropagatingSudokuSolver(SudokuSolver delegate) {
+        this(delegate, DEFAULT_TIMEOUT_MS, true);
+    }
+
+    /**
+     * Creates a new PropagatingSudokuSolver with a custom timeout and metrics printing option.
+     *
+     * @param delegate The solver used for the cells propagation cannot fill, or null to use
+     *                 the built-in propagate-and-branch search
+     * @param timeoutMs The timeout in milliseconds
+     * @param printMetrics Whether to print metrics after solving
+     */
+    public PropagatingSudokuSolver(SudokuSolver delegate, long timeoutMs, boolean printMetrics) {
+        this.delegate = delegate;
+        this.metrics = new SudokuMetrics();
+        this.timeoutMs = timeoutMs;
+        this.printMetrics = printMetrics;
+    }
+
+    @Override
+    public int[][] solve(int[][] board) throws SudokuTimeoutException {
+        return solve(board, null);
+    }
+
+    @Override
+    public int[][] solve(int[][] board, CancellationToken token) throws SudokuTimeoutException {
+        // Validate input
+        if (board == null || board.length != GRID_SIZE) {
+            throw new IllegalArgumentException("Board must be a 9x9 grid");
+        }
+
+        for (int i = 0; i < GRID_SIZE; i++) {
+            if (board[i] == null || board[i].length != GRID_SIZE) {
+                throw new IllegalArgumentException("Board must be a 9x9 grid");
+            }
+
+            for (int j = 0; j < GRID_SIZE; j++) {
+                if (board[i][j] < 0 || board[i][j] > 9) {
+                    throw new IllegalArgumentException("Board values must be between 0 and 9");
+                }
+            }
+        }
+
+        if (!SudokuValidator.isValidBoard(board)) {
+            throw new IllegalArgumentException("Board contains invalid values");
+        }
+
+        // Start tracking metrics
+        metrics.startTracking();
+        searchToken = CancellationToken.withTimeout(token, timeoutMs);
+        poller = new CancellationToken.Poller(searchToken);
+        operations = 0;
+        maxDepth = 0;
+        sampleMemory = metrics.isSamplingHeap();
+
+        int[][] solution;
+        try {
+            solution = delegate != null ? solveWithDelegate(board) : solveWithSearch(board);
+        } finally {
+            if (metrics.isCounting()) {
+                metrics.addOperationCount(operations + propagator.getOperationCount());
+                metrics.recordNestedDepth(maxDepth);
+            }
+            metrics.stopTracking();
+
+            if (printMetrics) {
+                metrics.printMetrics();
+            }
+        }
+        return solution;
+    }
+
+    /**
+     * Propagates to a fixed point and lets the delegate fill the remaining cells.
+     */
+    private int[][] solveWithDelegate(int[][] board) throws SudokuTimeoutException {
+        metrics.startPhase("propagation");
+        int initialEmpty = countEmpty(board);
+        if (!propagator.load(board) || !propagator.propagate()) {
+            return null; // Contradiction: no solution exists
+        }
+
+        int remaining = propagator.getEmptyCount();
+        if (remaining == 0) {
+            metrics.setCellsFilled(initialEmpty, 0);
+            return propagator.toBoard();
+        }
+
+        // The delegate counts its own allocations, by phase, on this same thread
+        int[][] start = propagator.toBoard();
+        metrics.pauseAllocationTracking();
+        int[][] solution;
+        try {
+            solution = delegate.solve(start, searchToken);
+        } finally {
+            metrics.resumeAllocationTracking();
+        }
+        if (delegate.getMetrics() != null) {
+            metrics.merge(delegate.getMetrics());
+        }
+        if (solution != null) {
+            metrics.setCellsFilled(initialEmpty - remaining, remaining);
+        }
+        return solution;
+    }
+
+    /**
+     * Solves with the built-in search, propagating after every guess.
+     */
+    private int[][] solveWithSearch(int[][] board) throws SudokuTimeoutException {
+        int initialEmpty = countEmpty(board);
+        guesses = 0;
+        if (!propagator.load(board) || !search(0)) {
+            if (poller.isStopped()) {
+                searchToken.throwIfStopped();
+            }
+            return null;
+        }
+        metrics.setCellsFilled(initialEmpty - guesses, guesses);
+        return propagator.toBoard();
+    }
+
+    /**
+     * Propagates the current state, then branches on the cell with the fewest candidates.
+     *
+     * @param depth The number of guesses on the current path
+     * @return true if a solution is found; the propagator then holds it, false if there is none
+     *         or the search was told to stop
+     */
+    private boolean search(int depth) {
+        // Unwind if the solve has been cancelled or has run out of time
+        if (poller.shouldStop()) {
+            return false;
+        }
+
+        if (!propagator.propagate()) {
+            return false;
+        }
+        if (propagator.isSolved()) {
+            guesses = depth;
+            return true;
+        }
+
+        if (depth >= maxDepth) {
+            maxDepth = depth + 1;
+        }
+        if (sampleMemory) {
+            metrics.updatePeakMemoryUsage();
+        }
+
+        int cell = propagator.selectCell();
+        int remaining = propagator.getCandidates(cell);
+        int[] saved = savedStates[depth];
+        propagator.saveState(saved);
+
+        while (remaining != 0) {
+            int bit = remaining & -remaining;
+            remaining ^= bit;
+            operations++;
+
+            if (propagator.assign(cell, Integer.numberOfTrailingZeros(bit) + 1) && search(depth + 1)) {
+                return true;
+            }
+
+            // Backtrack
+            propagator.restoreState(saved);
+        }
+
+        return false;
+    }
+
+    private static int countEmpty(int[][] board) {
+        int empty = 0;
+        for (int[] row : board) {
+            for (int value : row) {
+                if (value == 0) empty++;
+            }
+        }
+        return empty;
+    }
+
+    /**
+     * Gets the propagator, whose technique counters describe the last solve.
+     *
+     * @return The constraint propagator
+     */
+    public ConstraintPropagator getPropagator() {
+        return propagator;
+    }
+
+    /**
+     * Gets the metrics object.
+     *
+     * @return The metrics object
+     */
+    @Override
+    public SudokuMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets how much this solver and its delegate track.
+     *
+     * @param mode The metrics mode
+     */
+    @Override
+    public void setMetricsMode(SudokuMetrics.Mode mode) {
+        metrics.setMode(mode);
+        if (delegate != null) {
+            delegate.setMetricsMode(mode);
+        }
+    }
+}
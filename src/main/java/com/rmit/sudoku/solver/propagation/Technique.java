@@ -0,0 +1,27 @@
+package com.rmit.sudoku.solver.propagation;
+
+/**
+ * Logical solving techniques applied by the ConstraintPropagator, ordered from the
+ * simplest to the hardest. The propagator always retries the simplest technique
+ * after any progress, so this order is also the order in which a human would try them.
+ */
+public enum Technique {
+    NAKED_SINGLE("Naked single"),
+    HIDDEN_SINGLE("Hidden single"),
+    POINTING("Pointing pair/triple"),
+    BOX_LINE_REDUCTION("Box/line reduction"),
+    NAKED_PAIR("Naked pair"),
+    HIDDEN_PAIR("Hidden pair"),
+    NAKED_TRIPLE("Naked triple"),
+    HIDDEN_TRIPLE("Hidden triple");
+
+    private final String displayName;
+
+    Technique(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
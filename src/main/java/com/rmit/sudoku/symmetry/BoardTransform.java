@@ -0,0 +1,143 @@
+package com.rmit.sudoku.symmetry;
+
+import com.rmit.sudoku.model.CompactBoard;
+
+import java.util.Arrays;
+
+/**
+ * A validity-preserving Sudoku transform: optional transposition, then a row and a column
+ * permutation that keep bands and stacks together, then a digit relabelling.
+ * <p>
+ * Applied to a board {@code B} it produces {@code C[k][j] = digitMap[S[rowOrder[k]][colOrder[j]]]},
+ * where {@code S} is {@code B} or its transpose. Such a transform maps every solution of a puzzle
+ * to a solution of the transformed puzzle, so a solution can be carried through it and back.
+ */
+public final class BoardTransform {
+
+    private static final int GRID_SIZE = CompactBoard.GRID_SIZE;
+
+    private final boolean transpose;
+    private final int[] rowOrder;
+    private final int[] colOrder;
+    private final int[] digitMap;
+    private final int[] inverseDigitMap;
+
+    /**
+     * Creates a transform.
+     *
+     * @param transpose Whether the board is transposed first
+     * @param rowOrder For each output row, the source row (after transposition)
+     * @param colOrder For each output column, the source column (after transposition)
+     * @param digitMap For each source digit 0-9, the output digit; 0 must map to 0
+     */
+    public BoardTransform(boolean transpose, int[] rowOrder, int[] colOrder, int[] digitMap) {
+        if (!isBandPreserving(rowOrder) || !isBandPreserving(colOrder)) {
+            throw new IllegalArgumentException("Row and column orders must keep bands and stacks together");
+        }
+        if (digitMap.length != GRID_SIZE + 1 || digitMap[0] != 0 || !isPermutation(digitMap, GRID_SIZE + 1)) {
+            throw new IllegalArgumentException("Digit map must be a permutation of 1-9 that keeps 0");
+        }
+        this.transpose = transpose;
+        this.rowOrder = rowOrder.clone();
+        this.colOrder = colOrder.clone();
+        this.digitMap = digitMap.clone();
+        this.inverseDigitMap = new int[GRID_SIZE + 1];
+        for (int digit = 0; digit <= GRID_SIZE; digit++) {
+            inverseDigitMap[digitMap[digit]] = digit;
+        }
+    }
+
+    /**
+     * Applies the transform.
+     *
+     * @param board The board to transform
+     * @return A new transformed board
+     */
+    public CompactBoard apply(CompactBoard board) {
+        CompactBoard result = new CompactBoard();
+        for (int k = 0; k < GRID_SIZE; k++) {
+            for (int j = 0; j < GRID_SIZE; j++) {
+                result.set(k, j, digitMap[sourceValue(board, rowOrder[k], colOrder[j])]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Applies the inverse transform, e.g. to map the solution of a transformed puzzle back
+     * to the original puzzle.
+     *
+     * @param board A board in transformed coordinates
+     * @return A new board in the original coordinates
+     */
+    public CompactBoard applyInverse(CompactBoard board) {
+        CompactBoard result = new CompactBoard();
+        for (int k = 0; k < GRID_SIZE; k++) {
+            for (int j = 0; j < GRID_SIZE; j++) {
+                int value = inverseDigitMap[board.get(k, j)];
+                if (transpose) {
+                    result.set(colOrder[j], rowOrder[k], value);
+                } else {
+                    result.set(rowOrder[k], colOrder[j], value);
+                }
+            }
+        }
+        return result;
+    }
+
+    private int sourceValue(CompactBoard board, int row, int col) {
+        return transpose ? board.get(col, row) : board.get(row, col);
+    }
+
+    /**
+     * Checks that an order is a permutation of 0-8 that maps each group of three positions
+     * (band or stack) onto a group of three.
+     */
+    private static boolean isBandPreserving(int[] order) {
+        if (order == null || order.length != GRID_SIZE || !isPermutation(order, GRID_SIZE)) {
+            return false;
+        }
+        for (int band = 0; band < GRID_SIZE; band += 3) {
+            int sourceBand = order[band] / 3;
+            if (order[band + 1] / 3 != sourceBand || order[band + 2] / 3 != sourceBand) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPermutation(int[] values, int size) {
+        boolean[] seen = new boolean[size];
+        for (int value : values) {
+            if (value < 0 || value >= size || seen[value]) {
+                return false;
+            }
+            seen[value] = true;
+        }
+        return true;
+    }
+
+    public boolean isTranspose() {
+        return transpose;
+    }
+
+    public int[] getRowOrder() {
+        return rowOrder.clone();
+    }
+
+    public int[] getColOrder() {
+        return colOrder.clone();
+    }
+
+    public int[] getDigitMap() {
+        return digitMap.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "BoardTransform{transpose=" + transpose +
+                ", rowOrder=" + Arrays.toString(rowOrder) +
+                ", colOrder=" + Arrays.toString(colOrder) +
+                ", digitMap=" + Arrays.toString(digitMap) + "}";
+    }
+}
@@ -0,0 +1,475 @@
+package com.rmit.sudoku.symmetry;
+
+import com.rmit.sudoku.model.CompactBoard;
+
+import java.util.Arrays;
+
+/**
+ * Maps a puzzle to a canonical representative of its symmetry class, so that puzzles which
+ * differ only by transposition, band/row/stack/column permutations and digit relabelling get
+ * the same canonical board.
+ * <p>
+ * The representative is the lexicographically smallest board, read row by row, over all
+ * 2 x 6^8 layouts, with the givens of each layout relabelled 1, 2, 3... in order of first
+ * appearance and empty cells counting as 0. It is built one output row at a time, keeping
+ * every partial transform whose rows so far tie with the best prefix and dropping the rest.
+ * <p>
+ * Column orders are not enumerated up front. Each partial transform keeps its columns as an
+ * ordered partition: columns in the same block of a stack, and whole stacks marked as tied,
+ * can still be swapped because they have been empty in the same places so far. Choosing a row
+ * sorts each block (empty cells first, then known labels, then digits not seen yet), sorts tied
+ * stacks, and only branches where digits not seen yet could be ordered in several ways. This
+ * keeps the number of partial transforms small for ordinary puzzles. Nearly empty or highly
+ * symmetric puzzles can still tie on a huge number of them; once more than the state limit
+ * ({@link #MAX_STATES} by default) would have to be kept, the canonicalizer gives up and
+ * returns null.
+ * <p>
+ * Instances keep their search buffers between calls and are not thread-safe.
+ */
+public class SudokuCanonicalizer {
+
+    /** Default maximum number of tied partial transforms kept at once. */
+    public static final int MAX_STATES = 8192;
+
+    private static final int GRID_SIZE = CompactBoard.GRID_SIZE;
+    private static final int CELL_COUNT = CompactBoard.CELL_COUNT;
+
+    /** Sort key of a digit that has no label yet; larger than every label. */
+    private static final int UNSEEN = GRID_SIZE + 1;
+
+    /** Block boundaries that always exist: the ends of the three stacks. */
+    private static final int STACK_ENDS = (1 << 2) | (1 << 5) | (1 << 8);
+
+    // Layout of one partial transform in the state buffers
+    private static final int TRANSPOSE = 0;
+    private static final int ROWS = 1;                    // source row of each output row
+    private static final int COLS = ROWS + GRID_SIZE;     // source column of each output column
+    private static final int MAP = COLS + GRID_SIZE;      // label of each digit 0-9, 0 if unseen
+    private static final int NEXT_LABEL = MAP + GRID_SIZE + 1;
+    private static final int BLOCK_ENDS = NEXT_LABEL + 1; // bit j: output column j ends a block
+    private static final int STACK_TIES = BLOCK_ENDS + 1; // bit s: stacks s and s + 1 are tied
+    private static final int STATE_SIZE = STACK_TIES + 1;
+
+    /** All permutations of 0..n-1, for n = 0..3. */
+    private static final int[][][] PERMUTATIONS = {
+            {{}},
+            {{0}},
+            {{0, 1}, {1, 0}},
+            {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}}
+    };
+
+    // At most one branch group per block plus one for the stacks
+    private static final int MAX_GROUPS = GRID_SIZE + 1;
+
+    /** The board and its transpose, as cell values. */
+    private final int[][] grids = new int[2][CELL_COUNT];
+
+    private int[] states = new int[64 * STATE_SIZE];
+    private int[] nextStates = new int[64 * STATE_SIZE];
+    private int stateCount;
+    private int nextStateCount;
+
+    private final int[] canonicalCells = new int[CELL_COUNT];
+    private final int[] bestKeys = new int[GRID_SIZE];
+
+    // The state being extended: its columns, the sort key of each digit, and rows it cannot use
+    private final int[] stateCols = new int[GRID_SIZE];
+    private final int[] stateKeys = new int[GRID_SIZE + 1];
+    private int unavailableRows;
+
+    // Result of arranging one candidate row under one state
+    private final int[] keys = new int[GRID_SIZE];
+    private final int[] cols = new int[GRID_SIZE];
+    private final int[] slotOrder = new int[3];
+    private final int[] slotKeys = new int[GRID_SIZE];
+    private final int[] slotCols = new int[GRID_SIZE];
+
+    // Interchangeable runs of unseen digits, enumerated when a candidate row is kept
+    private final int[] groupStart = new int[MAX_GROUPS];
+    private final int[] groupLength = new int[MAX_GROUPS];
+    private final boolean[] groupIsStacks = new boolean[MAX_GROUPS];
+    private final int[][] savedCols = new int[MAX_GROUPS][GRID_SIZE];
+    private int groupCount;
+
+    private final int maxStates;
+
+    /**
+     * Creates a new SudokuCanonicalizer that keeps up to {@link #MAX_STATES} tied partial transforms.
+     */
+    public SudokuCanonicalizer() {
+        this(MAX_STATES);
+    }
+
+    /**
+     * Creates a new SudokuCanonicalizer with a custom state limit. A lower limit gives up sooner
+     * on nearly empty or highly symmetric puzzles, bounding the time spent on them.
+     *
+     * @param maxStates The maximum number of tied partial transforms kept at once
+     */
+    public SudokuCanonicalizer(int maxStates) {
+        if (maxStates < 2) {
+            throw new IllegalArgumentException("State limit must be at least 2");
+        }
+        this.maxStates = maxStates;
+    }
+
+    /**
+     * Canonicalizes a puzzle.
+     *
+     * @param board The puzzle
+     * @return The canonical board and the transform that produces it from {@code board},
+     *         or null if the puzzle has too many symmetries to canonicalize cheaply
+     */
+    public Canonical canonicalize(CompactBoard board) {
+        if (board == null) {
+            throw new IllegalArgumentException("Board must be a 9x9 grid");
+        }
+        for (int r = 0; r < GRID_SIZE; r++) {
+            for (int c = 0; c < GRID_SIZE; c++) {
+                int value = board.get(r, c);
+                grids[0][r * GRID_SIZE + c] = value;
+                grids[1][c * GRID_SIZE + r] = value;
+            }
+        }
+
+        // One starting state per orientation, with every column interchangeable within its stack
+        stateCount = 0;
+        for (int t = 0; t < 2; t++) {
+            int base = stateCount++ * STATE_SIZE;
+            Arrays.fill(states, base, base + STATE_SIZE, 0);
+            states[base + TRANSPOSE] = t;
+            for (int j = 0; j < GRID_SIZE; j++) {
+                states[base + COLS + j] = j;
+            }
+            states[base + NEXT_LABEL] = 1;
+            states[base + BLOCK_ENDS] = STACK_ENDS;
+            states[base + STACK_TIES] = 0b11;
+        }
+
+        for (int k = 0; k < GRID_SIZE; k++) {
+            if (!extend(k)) {
+                return null;
+            }
+        }
+        return buildResult();
+    }
+
+    /**
+     * Chooses output row {@code k} for every state, keeping only the extensions that tie on
+     * the smallest row.
+     *
+     * @return false if more than the state limit of extensions tie
+     */
+    private boolean extend(int k) {
+        int bandStart = k - k % 3;
+        boolean hasBest = false;
+        nextStateCount = 0;
+
+        for (int s = 0; s < stateCount; s++) {
+            int base = s * STATE_SIZE;
+            loadState(base, k);
+            int firstRow = 0;
+            int lastRow = GRID_SIZE;
+            if (k != bandStart) {
+                firstRow = states[base + ROWS + bandStart] / 3 * 3;
+                lastRow = firstRow + 3;
+            }
+
+            for (int r = firstRow; r < lastRow; r++) {
+                if ((unavailableRows & (1 << r)) != 0) {
+                    continue;
+                }
+                arrange(base, r);
+
+                int cmp = hasBest ? compareKeys() : -1;
+                if (cmp > 0) {
+                    continue;
+                }
+                if (cmp < 0) {
+                    System.arraycopy(keys, 0, bestKeys, 0, GRID_SIZE);
+                    hasBest = true;
+                    nextStateCount = 0;
+                }
+                if (!branch(base, k, r)) {
+                    return false;
+                }
+            }
+        }
+
+        int[] swap = states;
+        states = nextStates;
+        nextStates = swap;
+        stateCount = nextStateCount;
+
+        // All remaining states agree on the rows so far; read the labels of row k off the first one
+        int[] grid = grids[states[TRANSPOSE]];
+        int rowBase = states[ROWS + k] * GRID_SIZE;
+        for (int j = 0; j < GRID_SIZE; j++) {
+            canonicalCells[k * GRID_SIZE + j] = states[MAP + grid[rowBase + states[COLS + j]]];
+        }
+        return true;
+    }
+
+    /**
+     * Copies what {@link #arrange} needs from a state into fields, and works out which source
+     * rows cannot become output row {@code k}: rows already used and, when a new band starts,
+     * every row of a band already placed.
+     */
+    private void loadState(int base, int k) {
+        System.arraycopy(states, base + COLS, stateCols, 0, GRID_SIZE);
+        for (int digit = 1; digit <= GRID_SIZE; digit++) {
+            int label = states[base + MAP + digit];
+            stateKeys[digit] = label == 0 ? UNSEEN : label;
+        }
+        unavailableRows = 0;
+        for (int i = 0; i < k; i++) {
+            int row = states[base + ROWS + i];
+            unavailableRows |= k % 3 == 0 ? 0b111 << (row / 3 * 3) : 1 << row;
+        }
+    }
+
+    /**
+     * Arranges source row {@code r} under a state as well as its interchangeable columns allow,
+     * filling {@link #keys} and {@link #cols}. Digits not seen yet all get the key
+     * {@link #UNSEEN}; since they are labelled in order of position, comparing these keys
+     * compares the relabelled rows.
+     */
+    private void arrange(int base, int r) {
+        int[] grid = grids[states[base + TRANSPOSE]];
+        int rowBase = r * GRID_SIZE;
+        int blockEnds = states[base + BLOCK_ENDS];
+
+        // Sort every block in place
+        int start = 0;
+        for (int j = 0; j < GRID_SIZE; j++) {
+            int col = stateCols[j];
+            int key = stateKeys[grid[rowBase + col]];
+            int i = j;
+            while (i > start && slotKeys[i - 1] > key) {
+                slotKeys[i] = slotKeys[i - 1];
+                slotCols[i] = slotCols[i - 1];
+                i--;
+            }
+            slotKeys[i] = key;
+            slotCols[i] = col;
+            if ((blockEnds & (1 << j)) != 0) {
+                start = j + 1;
+            }
+        }
+
+        // Sort tied stacks by their sorted contents
+        int ties = states[base + STACK_TIES];
+        slotOrder[0] = 0;
+        for (int s = 1; s < 3; s++) {
+            int i = s;
+            while (i > 0 && (ties & (1 << (i - 1))) != 0 && compareSlots(slotOrder[i - 1], s) > 0) {
+                slotOrder[i] = slotOrder[i - 1];
+                i--;
+            }
+            slotOrder[i] = s;
+        }
+        for (int s = 0; s < 3; s++) {
+            System.arraycopy(slotKeys, slotOrder[s] * 3, keys, s * 3, 3);
+            System.arraycopy(slotCols, slotOrder[s] * 3, cols, s * 3, 3);
+        }
+    }
+
+    private int compareSlots(int a, int b) {
+        for (int i = 0; i < 3; i++) {
+            int diff = slotKeys[a * 3 + i] - slotKeys[b * 3 + i];
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private int compareKeys() {
+        for (int j = 0; j < GRID_SIZE; j++) {
+            if (keys[j] != bestKeys[j]) {
+                return keys[j] < bestKeys[j] ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Adds the extensions of a state by the arranged row {@code r}: one for every way to order
+     * unseen digits that are still interchangeable, either within a block or as tied stacks.
+     *
+     * @return false if this would exceed the state limit
+     */
+    private boolean branch(int base, int k, int r) {
+        int blockEnds = states[base + BLOCK_ENDS];
+        int ties = states[base + STACK_TIES];
+
+        // Empty cells stay interchangeable; any other pair of neighbouring columns is now ordered
+        int newBlockEnds = blockEnds;
+        for (int j = 0; j < GRID_SIZE - 1; j++) {
+            if (keys[j] != 0 || keys[j + 1] != 0) {
+                newBlockEnds |= 1 << j;
+            }
+        }
+
+        // Tied stacks stay tied only while they hold nothing but empty cells in the same places
+        groupCount = 0;
+        int newTies = 0;
+        for (int s = 0; s < 2; s++) {
+            if ((ties & (1 << s)) == 0 || !sameStackKeys(s, s + 1)) {
+                continue;
+            }
+            if (!hasUnseen(s)) {
+                newTies |= 1 << s;
+            } else if (groupCount > 0 && groupStart[groupCount - 1] + groupLength[groupCount - 1] == s + 1) {
+                groupLength[groupCount - 1]++;
+            } else {
+                addGroup(s, 2, true);
+            }
+        }
+
+        // Unseen digits sort to the end of their block; a run of them can be ordered any way
+        int start = 0;
+        for (int j = 0; j < GRID_SIZE; j++) {
+            if ((blockEnds & (1 << j)) != 0) {
+                int run = 0;
+                while (run <= j - start && keys[j - run] == UNSEEN) {
+                    run++;
+                }
+                if (run > 1) {
+                    addGroup(j + 1 - run, run, false);
+                }
+                start = j + 1;
+            }
+        }
+
+        return enumerate(base, k, r, newBlockEnds, newTies, 0);
+    }
+
+    private boolean sameStackKeys(int a, int b) {
+        return keys[a * 3] == keys[b * 3] && keys[a * 3 + 1] == keys[b * 3 + 1] && keys[a * 3 + 2] == keys[b * 3 + 2];
+    }
+
+    private boolean hasUnseen(int slot) {
+        return keys[slot * 3] == UNSEEN || keys[slot * 3 + 1] == UNSEEN || keys[slot * 3 + 2] == UNSEEN;
+    }
+
+    private void addGroup(int start, int length, boolean stacks) {
+        groupStart[groupCount] = start;
+        groupLength[groupCount] = length;
+        groupIsStacks[groupCount] = stacks;
+        groupCount++;
+    }
+
+    /**
+     * Applies every ordering of branch groups {@code g} onwards to {@link #cols} and adds the
+     * resulting states. Stack groups come first, so block groups then permute the moved stacks.
+     */
+    private boolean enumerate(int base, int k, int r, int blockEnds, int ties, int g) {
+        if (g == groupCount) {
+            return addState(base, k, r, blockEnds, ties);
+        }
+        int[] saved = savedCols[g];
+        System.arraycopy(cols, 0, saved, 0, GRID_SIZE);
+        int start = groupStart[g];
+        int length = groupLength[g];
+        for (int[] perm : PERMUTATIONS[length]) {
+            for (int i = 0; i < length; i++) {
+                if (groupIsStacks[g]) {
+                    System.arraycopy(saved, (start + perm[i]) * 3, cols, (start + i) * 3, 3);
+                } else {
+                    cols[start + i] = saved[start + perm[i]];
+                }
+            }
+            if (!enumerate(base, k, r, blockEnds, ties, g + 1)) {
+                return false;
+            }
+        }
+        System.arraycopy(saved, 0, cols, 0, GRID_SIZE);
+        return true;
+    }
+
+    private boolean addState(int base, int k, int r, int blockEnds, int ties) {
+        if (nextStateCount == maxStates) {
+            return false;
+        }
+        nextStates = ensureCapacity(nextStates, nextStateCount + 1);
+        int target = nextStateCount++ * STATE_SIZE;
+        System.arraycopy(states, base, nextStates, target, STATE_SIZE);
+        nextStates[target + ROWS + k] = r;
+        System.arraycopy(cols, 0, nextStates, target + COLS, GRID_SIZE);
+        nextStates[target + BLOCK_ENDS] = blockEnds;
+        nextStates[target + STACK_TIES] = ties;
+
+        // Label the digits seen for the first time in order of position
+        int[] grid = grids[states[base + TRANSPOSE]];
+        int nextLabel = nextStates[target + NEXT_LABEL];
+        for (int j = 0; j < GRID_SIZE; j++) {
+            int value = grid[r * GRID_SIZE + cols[j]];
+            if (value != 0 && nextStates[target + MAP + value] == 0) {
+                nextStates[target + MAP + value] = nextLabel++;
+            }
+        }
+        nextStates[target + NEXT_LABEL] = nextLabel;
+        return true;
+    }
+
+    private int[] ensureCapacity(int[] buffer, int count) {
+        if (count * STATE_SIZE <= buffer.length) {
+            return buffer;
+        }
+        return Arrays.copyOf(buffer, Math.min(buffer.length * 2, maxStates * STATE_SIZE));
+    }
+
+    /**
+     * Builds the canonical board and the transform of the first remaining state. Digits that
+     * never appear get the remaining labels in increasing order, so the transform is complete.
+     */
+    private Canonical buildResult() {
+        int[] rowOrder = Arrays.copyOfRange(states, ROWS, ROWS + GRID_SIZE);
+        int[] colOrder = Arrays.copyOfRange(states, COLS, COLS + GRID_SIZE);
+        int[] digitMap = Arrays.copyOfRange(states, MAP, MAP + GRID_SIZE + 1);
+        int nextLabel = states[NEXT_LABEL];
+        for (int digit = 1; digit <= GRID_SIZE; digit++) {
+            if (digitMap[digit] == 0) {
+                digitMap[digit] = nextLabel++;
+            }
+        }
+
+        CompactBoard board = new CompactBoard();
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            board.set(cell, canonicalCells[cell]);
+        }
+        return new Canonical(board, new BoardTransform(states[TRANSPOSE] == 1, rowOrder, colOrder, digitMap));
+    }
+
+    /**
+     * A canonical board together with the transform that maps the original puzzle onto it.
+     */
+    public static class Canonical {
+        private final CompactBoard board;
+        private final BoardTransform transform;
+
+        Canonical(CompactBoard board, BoardTransform transform) {
+            this.board = board;
+            this.transform = transform;
+        }
+
+        /**
+         * Gets the canonical board.
+         *
+         * @return The canonical board
+         */
+        public CompactBoard getBoard() {
+            return board;
+        }
+
+        /**
+         * Gets the transform from the original puzzle to the canonical board.
+         *
+         * @return The transform
+         */
+        public BoardTransform getTransform() {
+            return transform;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.rmit.sudoku.validator;
 
+import com.rmit.sudoku.model.CompactBoard;
+
 /**
  * Class for validating Sudoku puzzles and moves.
  */
@@ -48,6 +50,42 @@ public class SudokuValidator {
         return true;
     }
     
+    /**
+     * Validates a compact board: no digit may appear twice in a row, column or 3x3 box.
+     * Value ranges are already guaranteed by {@link CompactBoard}.
+     * 
+     * @param board The board to validate
+     * @return true if the board is valid, false otherwise
+     */
+    public static boolean isValidBoard(CompactBoard board) {
+        if (board == null) {
+            return false;
+        }
+        
+        int[] rowUsed = new int[GRID_SIZE];
+        int[] colUsed = new int[GRID_SIZE];
+        int[] boxUsed = new int[GRID_SIZE];
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                int value = board.get(row, col);
+                if (value == 0) {
+                    continue;
+                }
+                
+                int bit = 1 << value;
+                int box = (row / 3) * 3 + col / 3;
+                if ((rowUsed[row] & bit) != 0 || (colUsed[col] & bit) != 0 || (boxUsed[box] & bit) != 0) {
+                    return false;
+                }
+                rowUsed[row] |= bit;
+                colUsed[col] |= bit;
+                boxUsed[box] |= bit;
+            }
+        }
+        
+        return true;
+    }
+    
     /**
      * Checks if placing a number at a specific position is valid.
      * 